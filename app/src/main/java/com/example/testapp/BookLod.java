@@ -0,0 +1,50 @@
+package com.example.testapp;
+
+/**
+ * Distance-based level of detail for the floating magical books.
+ *
+ *  LEVEL_NEAR: all pieces plus the style effect (runes / particles / sparkles)
+ *  LEVEL_MID:  spine, pages and covers only
+ *  LEVEL_FAR:  a single box in the cover colour
+ *
+ * Each threshold has a hysteresis band: a book only moves to a coarser level once it is
+ * half a band beyond the threshold, and back once it is half a band inside it, so books
+ * hovering around a threshold don't pop between levels every frame.
+ */
+public class BookLod {
+
+    public static final int LEVEL_NEAR = 0;
+    public static final int LEVEL_MID = 1;
+    public static final int LEVEL_FAR = 2;
+
+    private float midDistance;
+    private float farDistance;
+    private float hysteresis;
+
+    public BookLod(float midDistance, float farDistance, float hysteresis) {
+        setThresholds(midDistance, farDistance, hysteresis);
+    }
+
+    public void setThresholds(float midDistance, float farDistance, float hysteresis) {
+        this.midDistance = midDistance;
+        this.farDistance = Math.max(midDistance, farDistance);
+        this.hysteresis = Math.max(0f, hysteresis);
+    }
+
+    /** Level for a book at the given camera distance, given the level it had last frame. */
+    public int select(int currentLevel, float distance) {
+        float half = hysteresis * 0.5f;
+
+        // Thresholds shift away from the current level: harder to leave than to stay
+        float midEdge = currentLevel >= LEVEL_MID ? midDistance - half : midDistance + half;
+        float farEdge = currentLevel >= LEVEL_FAR ? farDistance - half : farDistance + half;
+
+        if (distance >= farEdge) return LEVEL_FAR;
+        if (distance >= midEdge) return LEVEL_MID;
+        return LEVEL_NEAR;
+    }
+
+    public float getMidDistance() { return midDistance; }
+    public float getFarDistance() { return farDistance; }
+    public float getHysteresis() { return hysteresis; }
+}
@@ -0,0 +1,378 @@
+package com.example.testapp;
+
+import android.opengl.GLES20;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * Floating magical books animated entirely in the vertex shader. Every piece of every book
+ * (spine, pages, covers and the style effect) is a unit box whose vertices carry the book's
+ * constants; the book program evaluates orbit, bob, spin, page flip and effect motion from
+ * uTime, so a frame costs a few uniforms and two draw calls however many books there are.
+ *
+ * Pieces and effects live in separate index ranges: pieces are opaque and drawn with the
+ * opaque pass, effects are translucent and drawn after the translucent pass. Each book's
+ * {@link BookLod} level is picked on the CPU with its hysteresis, once per frame in
+ * drawPieces(), and handed to the shader as a per-book uniform that drops the pieces the
+ * level leaves out.
+ *
+ * Books are added on the CPU, then uploaded on the GL thread; the CPU copy is kept for
+ * re-upload after EGL context loss.
+ */
+public class BookMesh {
+
+    // Piece types, matched by the book vertex shader
+    static final int PIECE_SPINE = 0;
+    static final int PIECE_PAGE = 1;
+    static final int PIECE_COVER = 2;
+    static final int PIECE_RUNE = 3;
+    static final int PIECE_PARTICLE = 4;
+    static final int PIECE_SPARKLE = 5;
+
+    public static final int STYLE_ANCIENT = 0;   // runes on the covers
+    public static final int STYLE_MYSTICAL = 1;  // orbiting particles
+    public static final int STYLE_GLOWING = 2;   // helix sparkles
+
+    private static final float[] RUNE_COLOR = {0.9f, 0.75f, 0.2f, 0.7f};
+    private static final float[] PARTICLE_COLOR = {0.4f, 0.6f, 1f, 0.8f};
+    private static final float[] SPARKLE_COLOR = {1f, 0.8f, 0.3f, 0.9f};
+
+    // position (3) + normal (3) + centre/size (4) + motion (4) + spin (4) + piece (4) + colour (4);
+    // piece is type, index, side and the book's slot in uBookLod
+    private static final int FLOATS_PER_VERTEX = 3 + 3 + 4 + 4 + 4 + 4 + 4;
+    private static final int STRIDE = FLOATS_PER_VERTEX * 4;
+    private static final int VERTICES_PER_BOX = 24;
+    private static final int INDICES_PER_BOX = 36;
+    private static final int PIECES_PER_BOOK = 5;
+    private static final int MAX_EFFECTS_PER_BOOK = 6;
+    private static final int MAX_BOXES_PER_BOOK = PIECES_PER_BOOK + MAX_EFFECTS_PER_BOOK;
+
+    // 16-bit indices, and one uBookLod entry per book (a vertex uniform vector each)
+    public static final int MAX_BOOKS = Math.min(65536 / (VERTICES_PER_BOX * MAX_BOXES_PER_BOOK), 32);
+
+    // Per book: x, y, z, size, orbitRadius, orbitSpeed, bobSpeed, bobOffset,
+    // spinSpeed, tilt, pageFlipSpeed, style, cover RGBA, page RGBA
+    private static final int BOOK_FLOATS = 12 + 4 + 4;
+
+    private final float[] books;
+    private int bookCount = 0;
+    private final int maxBooks;
+
+    // Built from books on upload, sized for maxBooks the first time and reused after
+    private float[] vertexData;
+    private short[] indexData;
+    private boolean built = false;
+    private int pieceBoxes = 0;
+    private int effectBoxes = 0;
+
+    // Effect boxes up to and including book b, so any book prefix is one index range
+    private int[] effectEnd;
+    private int visibleBooks = Integer.MAX_VALUE;
+
+    // BookLod level per book, kept across frames for the hysteresis, and as uBookLod floats
+    private final int[] lodLevels;
+    private final float[] lodUniform;
+
+    private int vboId = 0;
+    private int iboId = 0;
+
+    // Direct copies for reupload(), allocated on first use
+    private FloatBuffer stagingVertices;
+    private ShortBuffer stagingIndices;
+
+    public BookMesh(int maxBooks) {
+        this.maxBooks = Math.min(maxBooks, MAX_BOOKS);
+        books = new float[this.maxBooks * BOOK_FLOATS];
+        lodLevels = new int[this.maxBooks];
+        lodUniform = new float[this.maxBooks];
+    }
+
+    // ------------------------
+    // Building (CPU side)
+    // ------------------------
+
+    /** Angles in degrees, speeds per second of uTime, same meaning as the CPU book path. */
+    public void addBook(float x, float y, float z, float size,
+                        float orbitRadius, float orbitSpeed, float bobSpeed, float bobOffset,
+                        float spinSpeed, float tiltAngle, float pageFlipSpeed, int style,
+                        float[] coverColor, float[] pageColor) {
+        if (bookCount >= maxBooks) {
+            throw new IllegalStateException("BookMesh is full (" + maxBooks + " books)");
+        }
+        int o = bookCount * BOOK_FLOATS;
+        books[o] = x;
+        books[o + 1] = y;
+        books[o + 2] = z;
+        books[o + 3] = size;
+        books[o + 4] = orbitRadius;
+        books[o + 5] = orbitSpeed;
+        books[o + 6] = bobSpeed;
+        books[o + 7] = bobOffset;
+        books[o + 8] = spinSpeed;
+        books[o + 9] = tiltAngle;
+        books[o + 10] = pageFlipSpeed;
+        books[o + 11] = style;
+        System.arraycopy(coverColor, 0, books, o + 12, 4);
+        System.arraycopy(pageColor, 0, books, o + 16, 4);
+        lodLevels[bookCount] = BookLod.LEVEL_NEAR;
+        bookCount++;
+
+        // Rebuilt on the next upload
+        built = false;
+    }
+
+    /** Move every book added so far along z; rebuilt on the next upload or reupload(). */
+    public void translateZ(float dz) {
+        for (int i = 0; i < bookCount; i++) {
+            books[i * BOOK_FLOATS + 2] += dz;
+        }
+        built = false;
+    }
+
+    public void clear() {
+        bookCount = 0;
+        built = false;
+    }
+
+    public int getBookCount() {
+        return bookCount;
+    }
+
+    // Pieces of every book first, then every effect, so each pass is one index range
+    private void build() {
+        if (vertexData == null) {
+            int maxBoxes = maxBooks * MAX_BOXES_PER_BOOK;
+            vertexData = new float[maxBoxes * VERTICES_PER_BOX * FLOATS_PER_VERTEX];
+            indexData = new short[maxBoxes * INDICES_PER_BOX];
+            effectEnd = new int[maxBooks];
+        }
+
+        int box = 0;
+        for (int b = 0; b < bookCount; b++) {
+            int o = b * BOOK_FLOATS;
+            box = addPiece(box, o, PIECE_SPINE, 0, 0, books, o + 12);
+            box = addPiece(box, o, PIECE_PAGE, 0, -1, books, o + 16);
+            box = addPiece(box, o, PIECE_COVER, 0, -1, books, o + 12);
+            box = addPiece(box, o, PIECE_PAGE, 0, 1, books, o + 16);
+            box = addPiece(box, o, PIECE_COVER, 0, 1, books, o + 12);
+        }
+        pieceBoxes = box;
+
+        for (int b = 0; b < bookCount; b++) {
+            int o = b * BOOK_FLOATS;
+            switch ((int) books[o + 11]) {
+                case STYLE_ANCIENT:
+                    for (int side = -1; side <= 1; side += 2) {
+                        for (int i = 0; i < 3; i++) {
+                            box = addPiece(box, o, PIECE_RUNE, i, side, RUNE_COLOR, 0);
+                        }
+                    }
+                    break;
+                case STYLE_MYSTICAL:
+                    for (int i = 0; i < 4; i++) {
+                        box = addPiece(box, o, PIECE_PARTICLE, i, 0, PARTICLE_COLOR, 0);
+                    }
+                    break;
+                case STYLE_GLOWING:
+                    for (int i = 0; i < 6; i++) {
+                        box = addPiece(box, o, PIECE_SPARKLE, i, 0, SPARKLE_COLOR, 0);
+                    }
+                    break;
+            }
+            effectEnd[b] = box - pieceBoxes;
+        }
+        effectBoxes = box - pieceBoxes;
+        built = true;
+    }
+
+    // Appends one unit box tagged with its book and piece; returns the next box index
+    private int addPiece(int box, int bookOffset, int type, int index, int side,
+                         float[] color, int colorOffset) {
+        float[] src = Cube.VERTICES;
+        int out = box * VERTICES_PER_BOX * FLOATS_PER_VERTEX;
+        int idx = box * INDICES_PER_BOX;
+        int firstVertex = box * VERTICES_PER_BOX;
+
+        // Same face layout as StaticMesh: corners 0, 1, 2 and 5 of each face
+        for (int face = 0; face < 6; face++) {
+            for (int corner = 0; corner < 4; corner++) {
+                int v = face * 6 + (corner == 3 ? 5 : corner);
+                int s = v * Cube.FLOATS_PER_VERTEX;
+
+                // Unit cube position + normal; the shader does all the transforming
+                System.arraycopy(src, s, vertexData, out, 6);
+                out += 6;
+
+                // Book constants (centre/size, motion, spin)
+                System.arraycopy(books, bookOffset, vertexData, out, 11);
+                out += 11;
+                vertexData[out++] = 0f;
+
+                vertexData[out++] = type;
+                vertexData[out++] = index;
+                vertexData[out++] = side;
+                vertexData[out++] = bookOffset / BOOK_FLOATS;
+
+                System.arraycopy(color, colorOffset, vertexData, out, 4);
+                out += 4;
+            }
+
+            int f = firstVertex + face * 4;
+            indexData[idx++] = (short) f;
+            indexData[idx++] = (short) (f + 1);
+            indexData[idx++] = (short) (f + 2);
+            indexData[idx++] = (short) f;
+            indexData[idx++] = (short) (f + 2);
+            indexData[idx++] = (short) (f + 3);
+        }
+        return box + 1;
+    }
+
+    // ------------------------
+    // GL lifecycle (GL thread only)
+    // ------------------------
+
+    /** Uploads the books added so far. No-op if already uploaded for this context. */
+    public void upload() {
+        if (vboId != 0 || bookCount == 0) return;
+        if (!built) {
+            build();
+        }
+
+        int boxes = pieceBoxes + effectBoxes;
+        FloatBuffer vb = ByteBuffer.allocateDirect(boxes * VERTICES_PER_BOX * FLOATS_PER_VERTEX * 4)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+        ShortBuffer ib = ByteBuffer.allocateDirect(boxes * INDICES_PER_BOX * 2)
+                .order(ByteOrder.nativeOrder())
+                .asShortBuffer();
+
+        int[] ids = new int[2];
+        Gl.get().glGenBuffers(2, ids, 0);
+        vboId = ids[0];
+        iboId = ids[1];
+
+        bufferData(vb, ib);
+    }
+
+    /**
+     * Replace the uploaded contents with the books added since clear(), in the same GL
+     * buffers, for books rebuilt while running. Staging buffers are kept for the next time.
+     */
+    public void reupload() {
+        if (vboId == 0) {
+            upload();
+            return;
+        }
+        if (!built) {
+            build();
+        }
+        if (stagingVertices == null) {
+            stagingVertices = ByteBuffer.allocateDirect(vertexData.length * 4)
+                    .order(ByteOrder.nativeOrder())
+                    .asFloatBuffer();
+            stagingIndices = ByteBuffer.allocateDirect(indexData.length * 2)
+                    .order(ByteOrder.nativeOrder())
+                    .asShortBuffer();
+        }
+        stagingVertices.clear();
+        stagingIndices.clear();
+        bufferData(stagingVertices, stagingIndices);
+    }
+
+    private void bufferData(FloatBuffer vb, ShortBuffer ib) {
+        int boxes = pieceBoxes + effectBoxes;
+        int vertexFloats = boxes * VERTICES_PER_BOX * FLOATS_PER_VERTEX;
+        vb.put(vertexData, 0, vertexFloats).position(0);
+        int indexCount = boxes * INDICES_PER_BOX;
+        ib.put(indexData, 0, indexCount).position(0);
+
+        GlState.bindArrayBuffer(vboId);
+        Gl.get().glBufferData(GLES20.GL_ARRAY_BUFFER, vertexFloats * 4, vb, GLES20.GL_STATIC_DRAW);
+
+        GlState.bindElementArrayBuffer(iboId);
+        Gl.get().glBufferData(GLES20.GL_ELEMENT_ARRAY_BUFFER, indexCount * 2, ib, GLES20.GL_STATIC_DRAW);
+    }
+
+    /** Forget GL names from a lost context; the CPU copy stays for the next upload(). */
+    public void invalidate() {
+        vboId = 0;
+        iboId = 0;
+    }
+
+    /** True when the mesh is uploaded and the book program exists for this context. */
+    public boolean isReady() {
+        return vboId != 0 && ShaderHelper.bookProgram != -1;
+    }
+
+    // ------------------------
+    // Drawing
+    // ------------------------
+
+    /** Draw only the first count books (in the order they were added). */
+    public void setVisibleBooks(int count) {
+        visibleBooks = Math.max(0, count);
+    }
+
+    /**
+     * Spines, pages and covers. Call with the opaque pass state, once per frame and before
+     * drawEffects(): this is where each book's LOD level moves on.
+     */
+    public void drawPieces(float[] vpMatrix, float time, float camX, float camY, float camZ, BookLod lod) {
+        int books = Math.min(visibleBooks, bookCount);
+        updateLodLevels(books, camX, camY, camZ, lod);
+        drawRange(vpMatrix, time, books, 0, books * PIECES_PER_BOOK);
+    }
+
+    /** Runes, particles and sparkles, at the levels drawPieces() picked. Translucent pass state. */
+    public void drawEffects(float[] vpMatrix, float time) {
+        int books = Math.min(visibleBooks, bookCount);
+        if (books == 0) return;
+        drawRange(vpMatrix, time, books, pieceBoxes, pieceBoxes + effectEnd[books - 1]);
+    }
+
+    // Same distance as the CPU book path: camera to the book's orbit centre
+    private void updateLodLevels(int count, float camX, float camY, float camZ, BookLod lod) {
+        for (int b = 0; b < count; b++) {
+            int o = b * BOOK_FLOATS;
+            float dx = books[o] - camX;
+            float dy = books[o + 1] - camY;
+            float dz = books[o + 2] - camZ;
+            lodLevels[b] = lod.select(lodLevels[b], (float) Math.sqrt(dx * dx + dy * dy + dz * dz));
+            lodUniform[b] = lodLevels[b];
+        }
+    }
+
+    private void drawRange(float[] vpMatrix, float time, int lodCount, int startBox, int endBox) {
+        if (!isReady() || endBox <= startBox) return;
+
+        GlState.useProgram(ShaderHelper.bookProgram);
+        Gl.get().glUniformMatrix4fv(ShaderHelper.bookVPMatrixHandle, 1, false, vpMatrix, 0);
+        Gl.get().glUniform1f(ShaderHelper.bookTimeHandle, time);
+        Gl.get().glUniform1fv(ShaderHelper.bookLodHandle, lodCount, lodUniform, 0);
+
+        GlState.bindArrayBuffer(vboId);
+        GlState.setEnabledAttributes(GlState.attribBit(ShaderHelper.bookPositionHandle)
+                | GlState.attribBit(ShaderHelper.bookNormalHandle)
+                | GlState.attribBit(ShaderHelper.bookCenterHandle)
+                | GlState.attribBit(ShaderHelper.bookMotionHandle)
+                | GlState.attribBit(ShaderHelper.bookSpinHandle)
+                | GlState.attribBit(ShaderHelper.bookPieceHandle)
+                | GlState.attribBit(ShaderHelper.bookColorHandle));
+        GlState.vertexAttribPointer(ShaderHelper.bookPositionHandle, 3, STRIDE, 0);
+        GlState.vertexAttribPointer(ShaderHelper.bookNormalHandle, 3, STRIDE, 3 * 4);
+        GlState.vertexAttribPointer(ShaderHelper.bookCenterHandle, 4, STRIDE, 6 * 4);
+        GlState.vertexAttribPointer(ShaderHelper.bookMotionHandle, 4, STRIDE, 10 * 4);
+        GlState.vertexAttribPointer(ShaderHelper.bookSpinHandle, 4, STRIDE, 14 * 4);
+        GlState.vertexAttribPointer(ShaderHelper.bookPieceHandle, 4, STRIDE, 18 * 4);
+        GlState.vertexAttribPointer(ShaderHelper.bookColorHandle, 4, STRIDE, 22 * 4);
+
+        GlState.bindElementArrayBuffer(iboId);
+        RenderStats.drawCalls++;
+        Gl.get().glDrawElements(GLES20.GL_TRIANGLES, (endBox - startBox) * INDICES_PER_BOX,
+                GLES20.GL_UNSIGNED_SHORT, startBox * INDICES_PER_BOX * 2);
+    }
+}
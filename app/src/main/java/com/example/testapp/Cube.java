@@ -10,16 +10,16 @@ import java.nio.FloatBuffer;
 public class Cube {
 
     // Keep old glass thinness behavior for legacy draw() calls
-    private static final float GLASS_THICKNESS = 0.05f;
+    static final float GLASS_THICKNESS = 0.05f;
 
     // Interleaved: position (3) + normal (3)
-    private static final int POSITION_SIZE = 3;
+    static final int POSITION_SIZE = 3;
     private static final int NORMAL_SIZE = 3;
-    private static final int FLOATS_PER_VERTEX = POSITION_SIZE + NORMAL_SIZE;
-    private static final int STRIDE = FLOATS_PER_VERTEX * 4; // bytes
+    static final int FLOATS_PER_VERTEX = POSITION_SIZE + NORMAL_SIZE;
+    static final int STRIDE = FLOATS_PER_VERTEX * 4; // bytes
 
     // 36 vertices (12 triangles) * (pos + normal)
-    private static final float[] VERTICES = {
+    static final float[] VERTICES = {
             // FRONT (0,0,1)
             -0.5f,-0.5f, 0.5f,   0f,0f,1f,
             0.5f,-0.5f, 0.5f,   0f,0f,1f,
@@ -69,6 +69,7 @@ public class Cube {
             -0.5f,-0.5f, 0.5f,   0f,-1f,0f
     };
 
+    // Client-side copy, only used as the upload source for the VBO
     private static final FloatBuffer buffer;
     static {
         ByteBuffer bb = ByteBuffer.allocateDirect(VERTICES.length * 4);
@@ -79,7 +80,10 @@ public class Cube {
     }
 
     // vertex count
-    private static final int VERTEX_COUNT = VERTICES.length / FLOATS_PER_VERTEX;
+    static final int VERTEX_COUNT = VERTICES.length / FLOATS_PER_VERTEX;
+
+    // GPU copy of VERTICES, shared by every Cube. 0 = not uploaded for the current context.
+    private static int vboId = 0;
 
     public float x, y, z;            // position
     public float size = 1f;         // uniform scale
@@ -92,13 +96,52 @@ public class Cube {
         this.x = x; this.y = y; this.z = z;
     }
 
+    // ------------------------
+    // VBO lifecycle (GL thread only)
+    // ------------------------
+
+    /**
+     * Uploads the cube geometry into a vertex buffer object. Call from onSurfaceCreated,
+     * after {@link #invalidateBuffers()} when the EGL context may have been recreated.
+     */
+    public static void createBuffers() {
+        if (vboId != 0) return; // already uploaded for this context
+
+        int[] ids = new int[1];
+        Gl.get().glGenBuffers(1, ids, 0);
+        vboId = ids[0];
+
+        buffer.position(0);
+        GlState.bindArrayBuffer(vboId);
+        Gl.get().glBufferData(GLES20.GL_ARRAY_BUFFER, VERTICES.length * 4, buffer, GLES20.GL_STATIC_DRAW);
+    }
+
+    /**
+     * Forgets the buffer handle without deleting it. Use when the EGL context was lost:
+     * the old name died with the context and must not be passed to glDeleteBuffers.
+     */
+    public static void invalidateBuffers() {
+        vboId = 0;
+    }
+
+    static int getVboId() {
+        return vboId;
+    }
+
+    // Bind the shared VBO and point position + normal at their interleaved offsets.
+    // Attribute state is left in place; GlState skips it for the next cube.
+    private static void bindVertexBuffer() {
+        GlState.bindArrayBuffer(vboId);
+        GlState.setEnabledAttributes(GlState.attribBit(ShaderHelper.aPositionHandle)
+                | GlState.attribBit(ShaderHelper.aNormalHandle));
+        GlState.vertexAttribPointer(ShaderHelper.aPositionHandle, POSITION_SIZE, STRIDE, 0);
+        GlState.vertexAttribPointer(ShaderHelper.aNormalHandle, NORMAL_SIZE, STRIDE, POSITION_SIZE * 4);
+    }
+
     // ------------------------
     // Legacy draw() - thin glass style used around project
     // ------------------------
     public void draw(float[] vpMatrix, float[] colorRGBA) {
-        if (ShaderHelper.program == -1) return;
-        GLES20.glUseProgram(ShaderHelper.program);
-
         // Build model matrix
         Matrix.setIdentityM(modelMatrix, 0);
         Matrix.translateM(modelMatrix, 0, x, y, z);
@@ -107,206 +150,64 @@ public class Cube {
         }
         Matrix.scaleM(modelMatrix, 0, size, GLASS_THICKNESS, size);
 
-        // compute mvp
-        Matrix.multiplyMM(mvpMatrix, 0, vpMatrix, 0, modelMatrix, 0);
-        GLES20.glUniformMatrix4fv(ShaderHelper.uMVPMatrixHandle, 1, false, mvpMatrix, 0);
-
-        // set up attributes (position + normal)
-        // position attribute: starts at buffer position 0 (floats -> bytes offset = 0)
-        buffer.position(0);
-        GLES20.glEnableVertexAttribArray(ShaderHelper.aPositionHandle);
-        GLES20.glVertexAttribPointer(
-                ShaderHelper.aPositionHandle,
-                POSITION_SIZE,
-                GLES20.GL_FLOAT,
-                false,
-                STRIDE,
-                buffer
-        );
-
-        // normal attribute: offset by POSITION_SIZE floats
-        if (ShaderHelper.aNormalHandle != -1) {
-            buffer.position(POSITION_SIZE);
-            GLES20.glEnableVertexAttribArray(ShaderHelper.aNormalHandle);
-            GLES20.glVertexAttribPointer(
-                    ShaderHelper.aNormalHandle,
-                    NORMAL_SIZE,
-                    GLES20.GL_FLOAT,
-                    false,
-                    STRIDE,
-                    buffer
-            );
-        }
-
-        GLES20.glUniform4fv(ShaderHelper.uColorHandle, 1, colorRGBA, 0);
-        GLES20.glDrawArrays(GLES20.GL_TRIANGLES, 0, VERTEX_COUNT);
-
-        GLES20.glDisableVertexAttribArray(ShaderHelper.aPositionHandle);
-        if (ShaderHelper.aNormalHandle != -1) GLES20.glDisableVertexAttribArray(ShaderHelper.aNormalHandle);
+        RenderQueue.submit(vpMatrix, modelMatrix, colorRGBA);
     }
 
     // ------------------------
     // Legacy draw with rotation (used a lot)
     // ------------------------
     public void drawWithRotation(float[] vpMatrix, float[] colorRGBA) {
-        if (ShaderHelper.program == -1) return;
-        GLES20.glUseProgram(ShaderHelper.program);
-
         Matrix.setIdentityM(modelMatrix, 0);
         Matrix.translateM(modelMatrix, 0, x, y, z);
         Matrix.rotateM(modelMatrix, 0, modelRotationX, 1f, 0f, 0f);
         Matrix.scaleM(modelMatrix, 0, size, GLASS_THICKNESS, size);
 
-        Matrix.multiplyMM(mvpMatrix, 0, vpMatrix, 0, modelMatrix, 0);
-        GLES20.glUniformMatrix4fv(ShaderHelper.uMVPMatrixHandle, 1, false, mvpMatrix, 0);
-
-        buffer.position(0);
-        GLES20.glEnableVertexAttribArray(ShaderHelper.aPositionHandle);
-        GLES20.glVertexAttribPointer(
-                ShaderHelper.aPositionHandle,
-                POSITION_SIZE,
-                GLES20.GL_FLOAT, false,
-                STRIDE, buffer
-        );
-
-        if (ShaderHelper.aNormalHandle != -1) {
-            buffer.position(POSITION_SIZE);
-            GLES20.glEnableVertexAttribArray(ShaderHelper.aNormalHandle);
-            GLES20.glVertexAttribPointer(
-                    ShaderHelper.aNormalHandle,
-                    NORMAL_SIZE,
-                    GLES20.GL_FLOAT, false,
-                    STRIDE, buffer
-            );
-        }
-
-        GLES20.glUniform4fv(ShaderHelper.uColorHandle, 1, colorRGBA, 0);
-        GLES20.glDrawArrays(GLES20.GL_TRIANGLES, 0, VERTEX_COUNT);
-
-        GLES20.glDisableVertexAttribArray(ShaderHelper.aPositionHandle);
-        if (ShaderHelper.aNormalHandle != -1) GLES20.glDisableVertexAttribArray(ShaderHelper.aNormalHandle);
+        RenderQueue.submit(vpMatrix, modelMatrix, colorRGBA);
     }
 
     // ------------------------
     // Legacy drawWithModel: accept a full model matrix (many callers use this)
     // ------------------------
     public void drawWithModel(float[] vpMatrix, float[] modelMat, float[] colorRGBA) {
-        if (ShaderHelper.program == -1) return;
-        GLES20.glUseProgram(ShaderHelper.program);
-
-        Matrix.multiplyMM(mvpMatrix, 0, vpMatrix, 0, modelMat, 0);
-        GLES20.glUniformMatrix4fv(ShaderHelper.uMVPMatrixHandle, 1, false, mvpMatrix, 0);
-
-        buffer.position(0);
-        GLES20.glEnableVertexAttribArray(ShaderHelper.aPositionHandle);
-        GLES20.glVertexAttribPointer(
-                ShaderHelper.aPositionHandle,
-                POSITION_SIZE,
-                GLES20.GL_FLOAT, false,
-                STRIDE, buffer
-        );
-
-        if (ShaderHelper.aNormalHandle != -1) {
-            buffer.position(POSITION_SIZE);
-            GLES20.glEnableVertexAttribArray(ShaderHelper.aNormalHandle);
-            GLES20.glVertexAttribPointer(
-                    ShaderHelper.aNormalHandle,
-                    NORMAL_SIZE,
-                    GLES20.GL_FLOAT, false,
-                    STRIDE, buffer
-            );
-        }
-
-        GLES20.glUniform4fv(ShaderHelper.uColorHandle, 1, colorRGBA, 0);
-        GLES20.glDrawArrays(GLES20.GL_TRIANGLES, 0, VERTEX_COUNT);
-
-        GLES20.glDisableVertexAttribArray(ShaderHelper.aPositionHandle);
-        if (ShaderHelper.aNormalHandle != -1) GLES20.glDisableVertexAttribArray(ShaderHelper.aNormalHandle);
+        RenderQueue.submit(vpMatrix, modelMat, colorRGBA);
     }
 
     // ------------------------
     // Legacy drawCustomScale: accept custom scale (x,y,z) relative to Cube position
     // ------------------------
     public void drawCustomScale(float[] vpMatrix, float[] colorRGBA, float scaleX, float scaleY, float scaleZ) {
-        if (ShaderHelper.program == -1) return;
-        GLES20.glUseProgram(ShaderHelper.program);
-
         Matrix.setIdentityM(modelMatrix, 0);
         Matrix.translateM(modelMatrix, 0, x, y, z);
         Matrix.scaleM(modelMatrix, 0, scaleX, scaleY, scaleZ);
 
-        Matrix.multiplyMM(mvpMatrix, 0, vpMatrix, 0, modelMatrix, 0);
-        GLES20.glUniformMatrix4fv(ShaderHelper.uMVPMatrixHandle, 1, false, mvpMatrix, 0);
-
-        buffer.position(0);
-        GLES20.glEnableVertexAttribArray(ShaderHelper.aPositionHandle);
-        GLES20.glVertexAttribPointer(
-                ShaderHelper.aPositionHandle,
-                POSITION_SIZE,
-                GLES20.GL_FLOAT, false,
-                STRIDE, buffer
-        );
-
-        if (ShaderHelper.aNormalHandle != -1) {
-            buffer.position(POSITION_SIZE);
-            GLES20.glEnableVertexAttribArray(ShaderHelper.aNormalHandle);
-            GLES20.glVertexAttribPointer(
-                    ShaderHelper.aNormalHandle,
-                    NORMAL_SIZE,
-                    GLES20.GL_FLOAT, false,
-                    STRIDE, buffer
-            );
-        }
-
-        GLES20.glUniform4fv(ShaderHelper.uColorHandle, 1, colorRGBA, 0);
-        GLES20.glDrawArrays(GLES20.GL_TRIANGLES, 0, VERTEX_COUNT);
-
-        GLES20.glDisableVertexAttribArray(ShaderHelper.aPositionHandle);
-        if (ShaderHelper.aNormalHandle != -1) GLES20.glDisableVertexAttribArray(ShaderHelper.aNormalHandle);
+        RenderQueue.submit(vpMatrix, modelMatrix, colorRGBA);
     }
 
     // ------------------------
     // NEW: drawTwoSided - front faces using outerColor, back half using innerColor
     //    (assumes the mesh is organized with first half of vertices as "front-facing" sides)
+    //    Not batchable (two colours per cube): draws immediately, outside the render queue.
     // ------------------------
     public void drawTwoSided(float[] vpMatrix, float[] modelMat, float[] outerColor, float[] innerColor) {
-        if (ShaderHelper.program == -1) return;
-        GLES20.glUseProgram(ShaderHelper.program);
+        if (ShaderHelper.program == -1 || vboId == 0) return;
+        CubeBatch.flush();
+        GlState.useProgram(ShaderHelper.program);
 
         Matrix.multiplyMM(mvpMatrix, 0, vpMatrix, 0, modelMat, 0);
-        GLES20.glUniformMatrix4fv(ShaderHelper.uMVPMatrixHandle, 1, false, mvpMatrix, 0);
+        Gl.get().glUniformMatrix4fv(ShaderHelper.uMVPMatrixHandle, 1, false, mvpMatrix, 0);
 
-        buffer.position(0);
-        GLES20.glEnableVertexAttribArray(ShaderHelper.aPositionHandle);
-        GLES20.glVertexAttribPointer(
-                ShaderHelper.aPositionHandle,
-                POSITION_SIZE,
-                GLES20.GL_FLOAT, false,
-                STRIDE, buffer
-        );
-
-        if (ShaderHelper.aNormalHandle != -1) {
-            buffer.position(POSITION_SIZE);
-            GLES20.glEnableVertexAttribArray(ShaderHelper.aNormalHandle);
-            GLES20.glVertexAttribPointer(
-                    ShaderHelper.aNormalHandle,
-                    NORMAL_SIZE,
-                    GLES20.GL_FLOAT, false,
-                    STRIDE, buffer
-            );
-        }
+        bindVertexBuffer();
 
         int half = VERTEX_COUNT / 2;
 
         // Draw first half (outer)
-        GLES20.glUniform4fv(ShaderHelper.uColorHandle, 1, outerColor, 0);
-        GLES20.glDrawArrays(GLES20.GL_TRIANGLES, 0, half);
+        Gl.get().glUniform4fv(ShaderHelper.uColorHandle, 1, outerColor, 0);
+        RenderStats.drawCalls++;
+        Gl.get().glDrawArrays(GLES20.GL_TRIANGLES, 0, half);
 
         // Draw second half (inner)
-        GLES20.glUniform4fv(ShaderHelper.uColorHandle, 1, innerColor, 0);
-        GLES20.glDrawArrays(GLES20.GL_TRIANGLES, half, VERTEX_COUNT - half);
-
-        GLES20.glDisableVertexAttribArray(ShaderHelper.aPositionHandle);
-        if (ShaderHelper.aNormalHandle != -1) GLES20.glDisableVertexAttribArray(ShaderHelper.aNormalHandle);
+        Gl.get().glUniform4fv(ShaderHelper.uColorHandle, 1, innerColor, 0);
+        RenderStats.drawCalls++;
+        Gl.get().glDrawArrays(GLES20.GL_TRIANGLES, half, VERTEX_COUNT - half);
     }
 }
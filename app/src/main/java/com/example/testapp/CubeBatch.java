@@ -0,0 +1,225 @@
+package com.example.testapp;
+
+import android.opengl.GLES20;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Collects cube instances (model matrix + RGBA) and draws them in as few calls as
+ * possible. Instances are drawn in submission order, so blending looks the same as issuing
+ * one Cube draw per instance. Fed by {@link RenderQueue} once it has sorted a pass.
+ *
+ * ES 3.0: one glDrawArraysInstanced per flush, model + colour as per-instance attributes.
+ * ES 2.0: vertices are pre-transformed on the CPU into one big vertex array per flush.
+ *
+ * GL thread only.
+ */
+public class CubeBatch {
+
+    // Per instance: model matrix (16) + colour (4)
+    private static final int INSTANCE_FLOATS = 16 + 4;
+    private static final int MAX_INSTANCES = 512;
+
+    // ES 2.0 fallback: position (3) + normal (3) + colour (4) per vertex
+    private static final int BATCH_FLOATS_PER_VERTEX = 3 + 3 + 4;
+    private static final int BATCH_STRIDE = BATCH_FLOATS_PER_VERTEX * 4;
+    private static final int MAX_BATCH_INSTANCES = 128;
+
+    private static final int INSTANCED_ATTRIB_MASK =
+            (1 << (ShaderHelper.INSTANCED_COLOR_LOCATION + 1)) - 1; // locations 0..6
+
+    private static final float[] instanceData = new float[MAX_INSTANCES * INSTANCE_FLOATS];
+    private static int instanceCount = 0;
+
+    // View-projection used for the instances currently queued
+    private static float[] currentVPMatrix;
+
+    private static boolean useInstancing = false;
+    private static int instanceVboId = 0;
+    private static FloatBuffer uploadBuffer;
+    private static float[] vertexData;
+
+    // ------------------------
+    // Lifecycle (call from onSurfaceCreated, after ShaderHelper.init and Cube.createBuffers)
+    // ------------------------
+    public static void createBuffers() {
+        if (instanceVboId != 0) return;
+
+        useInstancing = ShaderHelper.instancedProgram != -1;
+
+        int uploadFloats;
+        if (useInstancing) {
+            uploadFloats = MAX_INSTANCES * INSTANCE_FLOATS;
+            vertexData = null;
+        } else {
+            uploadFloats = MAX_BATCH_INSTANCES * Cube.VERTEX_COUNT * BATCH_FLOATS_PER_VERTEX;
+            if (vertexData == null) {
+                vertexData = new float[uploadFloats];
+            }
+        }
+
+        if (uploadBuffer == null || uploadBuffer.capacity() < uploadFloats) {
+            uploadBuffer = ByteBuffer.allocateDirect(uploadFloats * 4)
+                    .order(ByteOrder.nativeOrder())
+                    .asFloatBuffer();
+        }
+
+        int[] ids = new int[1];
+        Gl.get().glGenBuffers(1, ids, 0);
+        instanceVboId = ids[0];
+        GlState.bindArrayBuffer(instanceVboId);
+        Gl.get().glBufferData(GLES20.GL_ARRAY_BUFFER, uploadFloats * 4, null, GLES20.GL_STREAM_DRAW);
+
+        instanceCount = 0;
+        currentVPMatrix = null;
+    }
+
+    public static void invalidateBuffers() {
+        instanceVboId = 0;
+        instanceCount = 0;
+        currentVPMatrix = null;
+    }
+
+    // ------------------------
+    // Frame API
+    // ------------------------
+
+    /**
+     * Queue one unit cube transformed by modelMatrix. Both arrays are copied, so callers
+     * may reuse them immediately. A different vpMatrix flushes what is queued first.
+     */
+    public static void add(float[] vpMatrix, float[] modelMatrix, float[] colorRGBA) {
+        int base = reserve(vpMatrix);
+        if (base < 0) return;
+        System.arraycopy(modelMatrix, 0, instanceData, base, 16);
+        System.arraycopy(colorRGBA, 0, instanceData, base + 16, 4);
+    }
+
+    /** Queue one instance already packed as model (16) + colour (4) at src[offset]. */
+    public static void addInstance(float[] vpMatrix, float[] src, int offset) {
+        int base = reserve(vpMatrix);
+        if (base < 0) return;
+        System.arraycopy(src, offset, instanceData, base, INSTANCE_FLOATS);
+    }
+
+    // Returns the float offset of a new instance slot, flushing first if needed; -1 if unusable
+    private static int reserve(float[] vpMatrix) {
+        if (instanceVboId == 0) return -1;
+
+        if (vpMatrix != currentVPMatrix) {
+            flush();
+            currentVPMatrix = vpMatrix;
+        }
+
+        int capacity = useInstancing ? MAX_INSTANCES : MAX_BATCH_INSTANCES;
+        if (instanceCount >= capacity) {
+            flush();
+            currentVPMatrix = vpMatrix;
+        }
+
+        return instanceCount++ * INSTANCE_FLOATS;
+    }
+
+    /** Draw everything queued so far. Call at least once at the end of each frame. */
+    public static void flush() {
+        if (instanceCount == 0 || currentVPMatrix == null) {
+            instanceCount = 0;
+            return;
+        }
+
+        if (useInstancing) {
+            flushInstanced();
+        } else {
+            flushPretransformed();
+        }
+        instanceCount = 0;
+    }
+
+    // ------------------------
+    // ES 3.0 path
+    // ------------------------
+    private static void flushInstanced() {
+        GlState.useProgram(ShaderHelper.instancedProgram);
+        Gl.get().glUniformMatrix4fv(ShaderHelper.instancedVPMatrixHandle, 1, false, currentVPMatrix, 0);
+
+        GlState.setEnabledAttributes(INSTANCED_ATTRIB_MASK);
+
+        // Shared cube geometry, advanced per vertex
+        GlState.bindArrayBuffer(Cube.getVboId());
+        GlState.vertexAttribPointer(ShaderHelper.INSTANCED_POSITION_LOCATION, 3, Cube.STRIDE, 0);
+        GlState.vertexAttribPointer(ShaderHelper.INSTANCED_NORMAL_LOCATION, 3,
+                Cube.STRIDE, Cube.POSITION_SIZE * 4);
+
+        // Per-instance model matrix + colour, advanced once per instance
+        int floats = instanceCount * INSTANCE_FLOATS;
+        uploadBuffer.position(0);
+        uploadBuffer.put(instanceData, 0, floats);
+        uploadBuffer.position(0);
+
+        GlState.bindArrayBuffer(instanceVboId);
+        Gl.get().glBufferSubData(GLES20.GL_ARRAY_BUFFER, 0, floats * 4, uploadBuffer);
+
+        int instanceStride = INSTANCE_FLOATS * 4;
+        for (int col = 0; col < 4; col++) {
+            GlState.vertexAttribPointer(ShaderHelper.INSTANCED_MODEL_LOCATION + col, 4,
+                    instanceStride, col * 16, 1);
+        }
+        GlState.vertexAttribPointer(ShaderHelper.INSTANCED_COLOR_LOCATION, 4,
+                instanceStride, 16 * 4, 1);
+
+        RenderStats.drawCalls++;
+        Gl.get().glDrawArraysInstanced(GLES20.GL_TRIANGLES, 0, Cube.VERTEX_COUNT, instanceCount);
+    }
+
+    // ------------------------
+    // ES 2.0 path
+    // ------------------------
+    private static void flushPretransformed() {
+        if (ShaderHelper.batchProgram == -1) return;
+
+        float[] src = Cube.VERTICES;
+        int out = 0;
+        for (int i = 0; i < instanceCount; i++) {
+            int base = i * INSTANCE_FLOATS;
+            float[] m = instanceData;
+            float r = m[base + 16], g = m[base + 17], b = m[base + 18], a = m[base + 19];
+
+            for (int v = 0; v < Cube.VERTEX_COUNT; v++) {
+                int s = v * Cube.FLOATS_PER_VERTEX;
+                float px = src[s], py = src[s + 1], pz = src[s + 2];
+
+                // Column-major model * (px, py, pz, 1)
+                vertexData[out++] = m[base] * px + m[base + 4] * py + m[base + 8] * pz + m[base + 12];
+                vertexData[out++] = m[base + 1] * px + m[base + 5] * py + m[base + 9] * pz + m[base + 13];
+                vertexData[out++] = m[base + 2] * px + m[base + 6] * py + m[base + 10] * pz + m[base + 14];
+
+                // Normals stay in object space, same as the single-cube shader
+                vertexData[out++] = src[s + 3];
+                vertexData[out++] = src[s + 4];
+                vertexData[out++] = src[s + 5];
+
+                vertexData[out++] = r;
+                vertexData[out++] = g;
+                vertexData[out++] = b;
+                vertexData[out++] = a;
+            }
+        }
+
+        uploadBuffer.position(0);
+        uploadBuffer.put(vertexData, 0, out);
+        uploadBuffer.position(0);
+
+        GlState.useProgram(ShaderHelper.batchProgram);
+        Gl.get().glUniformMatrix4fv(ShaderHelper.batchVPMatrixHandle, 1, false, currentVPMatrix, 0);
+
+        GlState.bindArrayBuffer(instanceVboId);
+        Gl.get().glBufferSubData(GLES20.GL_ARRAY_BUFFER, 0, out * 4, uploadBuffer);
+
+        ShaderHelper.bindBatchAttributes(BATCH_STRIDE);
+
+        RenderStats.drawCalls++;
+        Gl.get().glDrawArrays(GLES20.GL_TRIANGLES, 0, instanceCount * Cube.VERTEX_COUNT);
+    }
+}
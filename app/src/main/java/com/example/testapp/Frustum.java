@@ -0,0 +1,47 @@
+package com.example.testapp;
+
+/**
+ * View frustum as six planes extracted from a view-projection matrix (Gribb/Hartmann).
+ * Plane i is (a, b, c, d) at planes[i * 4], normalised so that a*x + b*y + c*z + d is the
+ * signed distance of a point; inside is positive.
+ */
+public class Frustum {
+
+    private final float[] planes = new float[6 * 4];
+
+    /** Re-extract the planes. vpMatrix is column-major (android.opengl.Matrix layout). */
+    public void update(float[] m) {
+        // Row r of the matrix is (m[r], m[4 + r], m[8 + r], m[12 + r])
+        setPlane(0, m[3] + m[0], m[7] + m[4], m[11] + m[8], m[15] + m[12]);  // left
+        setPlane(1, m[3] - m[0], m[7] - m[4], m[11] - m[8], m[15] - m[12]);  // right
+        setPlane(2, m[3] + m[1], m[7] + m[5], m[11] + m[9], m[15] + m[13]);  // bottom
+        setPlane(3, m[3] - m[1], m[7] - m[5], m[11] - m[9], m[15] - m[13]);  // top
+        setPlane(4, m[3] + m[2], m[7] + m[6], m[11] + m[10], m[15] + m[14]); // near
+        setPlane(5, m[3] - m[2], m[7] - m[6], m[11] - m[10], m[15] - m[14]); // far
+    }
+
+    private void setPlane(int i, float a, float b, float c, float d) {
+        float len = (float) Math.sqrt(a * a + b * b + c * c);
+        if (len > 0f) {
+            a /= len;
+            b /= len;
+            c /= len;
+            d /= len;
+        }
+        int o = i * 4;
+        planes[o] = a;
+        planes[o + 1] = b;
+        planes[o + 2] = c;
+        planes[o + 3] = d;
+    }
+
+    /** True if any part of the sphere may be inside the frustum. */
+    public boolean isSphereVisible(float x, float y, float z, float radius) {
+        for (int o = 0; o < planes.length; o += 4) {
+            if (planes[o] * x + planes[o + 1] * y + planes[o + 2] * z + planes[o + 3] < -radius) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
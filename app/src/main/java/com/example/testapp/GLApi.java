@@ -0,0 +1,106 @@
+package com.example.testapp;
+
+import java.nio.Buffer;
+
+/**
+ * The GL entry points the renderer uses, with android.opengl signatures. All rendering code
+ * calls these through Gl.get() instead of GLES20/GLES30 directly, so a backend other than
+ * the device driver (RecordingGL) can stand in on a plain JVM.
+ *
+ * Enum values are still the GLES20/GLES30 constants.
+ */
+public interface GLApi {
+
+    // ------------------------
+    // State
+    // ------------------------
+    void glEnable(int cap);
+    void glDisable(int cap);
+    void glBlendFunc(int sfactor, int dfactor);
+    void glDepthFunc(int func);
+    void glDepthMask(boolean flag);
+    void glViewport(int x, int y, int width, int height);
+    void glClearColor(float red, float green, float blue, float alpha);
+    void glClear(int mask);
+    void glUseProgram(int program);
+    void glActiveTexture(int texture);
+
+    // ------------------------
+    // Buffers and vertex attributes
+    // ------------------------
+    void glGenBuffers(int n, int[] buffers, int offset);
+    void glDeleteBuffers(int n, int[] buffers, int offset);
+    void glBindBuffer(int target, int buffer);
+    void glBufferData(int target, int size, Buffer data, int usage);
+    void glBufferSubData(int target, int offset, int size, Buffer data);
+    void glEnableVertexAttribArray(int index);
+    void glDisableVertexAttribArray(int index);
+    void glVertexAttribPointer(int index, int size, int type, boolean normalized, int stride, int offset);
+    void glVertexAttribDivisor(int index, int divisor);
+
+    // ------------------------
+    // Draws
+    // ------------------------
+    void glDrawArrays(int mode, int first, int count);
+    void glDrawElements(int mode, int count, int type, int offset);
+    void glDrawArraysInstanced(int mode, int first, int count, int instanceCount);
+
+    // ------------------------
+    // Uniforms
+    // ------------------------
+    void glUniform1f(int location, float x);
+    void glUniform1i(int location, int x);
+    void glUniform1fv(int location, int count, float[] v, int offset);
+    void glUniform2f(int location, float x, float y);
+    void glUniform3f(int location, float x, float y, float z);
+    void glUniform4fv(int location, int count, float[] v, int offset);
+    void glUniformMatrix4fv(int location, int count, boolean transpose, float[] value, int offset);
+
+    // ------------------------
+    // Shaders and programs
+    // ------------------------
+    int glCreateShader(int type);
+    void glShaderSource(int shader, String source);
+    void glCompileShader(int shader);
+    void glGetShaderiv(int shader, int pname, int[] params, int offset);
+    String glGetShaderInfoLog(int shader);
+    void glDeleteShader(int shader);
+    int glCreateProgram();
+    void glAttachShader(int program, int shader);
+    void glLinkProgram(int program);
+    void glGetProgramiv(int program, int pname, int[] params, int offset);
+    String glGetProgramInfoLog(int program);
+    void glDeleteProgram(int program);
+    int glGetAttribLocation(int program, String name);
+    int glGetUniformLocation(int program, String name);
+    void glProgramParameteri(int program, int pname, int value);
+    void glProgramBinary(int program, int binaryFormat, Buffer binary, int length);
+    void glGetProgramBinary(int program, int bufSize, int[] length, int lengthOffset,
+                            int[] binaryFormat, int binaryFormatOffset, Buffer binary);
+
+    // ------------------------
+    // Textures and framebuffers
+    // ------------------------
+    void glGenTextures(int n, int[] textures, int offset);
+    void glDeleteTextures(int n, int[] textures, int offset);
+    void glBindTexture(int target, int texture);
+    void glTexImage2D(int target, int level, int internalformat, int width, int height, int border,
+                      int format, int type, Buffer pixels);
+    void glTexParameteri(int target, int pname, int param);
+    void glGenFramebuffers(int n, int[] framebuffers, int offset);
+    void glDeleteFramebuffers(int n, int[] framebuffers, int offset);
+    void glBindFramebuffer(int target, int framebuffer);
+    void glFramebufferTexture2D(int target, int attachment, int textarget, int texture, int level);
+    void glFramebufferRenderbuffer(int target, int attachment, int renderbuffertarget, int renderbuffer);
+    int glCheckFramebufferStatus(int target);
+    void glGenRenderbuffers(int n, int[] renderbuffers, int offset);
+    void glDeleteRenderbuffers(int n, int[] renderbuffers, int offset);
+    void glBindRenderbuffer(int target, int renderbuffer);
+    void glRenderbufferStorage(int target, int internalformat, int width, int height);
+
+    // ------------------------
+    // Queries
+    // ------------------------
+    String glGetString(int name);
+    void glGetIntegerv(int pname, int[] params, int offset);
+}
@@ -0,0 +1,33 @@
+package com.example.testapp;
+
+import android.os.SystemClock;
+
+/**
+ * Time source for GameLogic, in milliseconds on the SystemClock.uptimeMillis base (the base
+ * of MotionEvent/KeyEvent times). The game runs on SYSTEM; trace replay drives a Manual
+ * clock so a session reproduces exactly and without waiting.
+ */
+public interface GameClock {
+
+    long uptimeMillis();
+
+    GameClock SYSTEM = SystemClock::uptimeMillis;
+
+    /** A clock that only moves when told to. */
+    final class Manual implements GameClock {
+        private long now;
+
+        public Manual(long startMillis) {
+            now = startMillis;
+        }
+
+        public void set(long millis) {
+            now = millis;
+        }
+
+        @Override
+        public long uptimeMillis() {
+            return now;
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.testapp;
 
-import android.os.SystemClock;
+import android.util.Log;
 
-import java.util.ArrayList;
+import java.io.File;
+import java.io.IOException;
 import java.util.Random;
+import java.util.concurrent.Executor;
 
 public class GameLogic {
+    private static final String TAG = "GameLogic";
 
     // Constants
     private static final float PLATFORM_Y = 1.0f;
@@ -15,11 +18,16 @@ public class GameLogic {
     private static final float GLASS_BREAK_SHAKE = 0.25f;
     private static final float SHAKE_DECAY_RATE = 3.0f;
     private static final long RESPAWN_DELAY_MS = 400;
-    private static final float MAX_DELTA_TIME = 0.05f;
+
+    // Fixed simulation step. Per-step speeds (Player, PlatformGlass) were tuned at 60 Hz.
+    public static final float SIM_STEP = 1f / 60f;
+    // Longest frame fed to the accumulator (at most 6 steps); longer hitches slow the game
+    // down instead of making it catch up in a burst
+    private static final float MAX_FRAME_TIME = 0.1f;
 
     // Level system constants
     private static final int STARTING_PLATFORMS = 3;
-    private static final int MAX_PLATFORMS = 10;
+    static final int MAX_PLATFORMS = 10;
     private static final long BASE_MEMORY_TIME_MS = 3000;
     private static final long MIN_MEMORY_TIME_MS = 500;
     private static final long MEMORY_FADE_DURATION_MS = 500;
@@ -28,69 +36,188 @@ public class GameLogic {
     private static final int PLATFORMS_AT_LEVEL_1_50 = 5;
     private static final int LEVELS_PER_PLATFORM_INCREASE = 10;
 
+    // Endless mode: a fixed window of platforms slides along with the player, generated ahead
+    // and recycled behind, so a run of any length costs the same memory and work per step.
+    // Platform number n (0 = start) lives in slot n % ENDLESS_WINDOW; ENDLESS_AHEAD of them
+    // are always ahead of the player, the rest are the one stood on and those just passed.
+    static final int ENDLESS_WINDOW = 12;
+    private static final int ENDLESS_AHEAD = 9;
+    private static final long ENDLESS_MEMORY_TIME_MS = 3000;
+    // A platform generated mid-run shows its safe side this long, then fades like the memory phase
+    private static final long ENDLESS_REVEAL_MS = 1000;
+    // Once the player lands this far out, the endless world (platforms, player) moves back this
+    // far towards z = 0, so float positions keep their precision however long the run. A whole
+    // number of LibraryChunk.LENGTH, so the library can follow without changing what it shows.
+    static final float ENDLESS_REBASE_Z = 500f;
+
+    // Most platforms any mode has live at once (render snapshots are sized for it)
+    static final int MAX_LIVE_PLATFORMS = Math.max(MAX_PLATFORMS, ENDLESS_WINDOW);
+
     private boolean hasStartedTimer = false;
 
     public enum GameState {
         MENU, MEMORY_PHASE, PLAYING, PAUSED, WON, LEVEL_TRANSITION
     }
 
-    // Level configuration
-    private static class LevelConfig {
-        int totalPlatforms;
-        long memoryDisplayDuration;
-
-        LevelConfig(int platforms, long memoryTime) {
-            this.totalPlatforms = platforms;
-            this.memoryDisplayDuration = memoryTime;
+    // Level configuration, precomputed per level: total platforms and memory time (ms).
+    // Both curves are flat well before the end of the table (platforms reach MAX_PLATFORMS
+    // at level 100, memory time its floor by level 33), so later levels use the last entry.
+    private static final int LEVEL_TABLE_SIZE = 128;
+    private static final byte[] LEVEL_PLATFORMS = new byte[LEVEL_TABLE_SIZE + 1];
+    private static final short[] LEVEL_MEMORY_MS = new short[LEVEL_TABLE_SIZE + 1];
+
+    static {
+        for (int level = 1; level <= LEVEL_TABLE_SIZE; level++) {
+            LEVEL_PLATFORMS[level] = (byte) computePlatformCount(level);
+            LEVEL_MEMORY_MS[level] = (short) computeMemoryTime(level);
         }
     }
 
+    // The live platforms are platforms[0 .. livePlatforms): the whole level, or the endless window
     public PlatformGlass[] platforms;
+    private int livePlatforms = 0;
+
+    // Every platform ever used, reset in place on each rebuild; platformsByCount[n] is the
+    // array of length n handed out as `platforms` for an n-platform level
+    private final PlatformGlass[] platformPool = new PlatformGlass[MAX_PLATFORMS];
+    private final PlatformGlass[][] platformsByCount = new PlatformGlass[MAX_PLATFORMS + 1][];
     public Player player;
 
-    private int nextPlatform = 0;
-    private Random random = new Random();
+    // Endless window: platforms [endlessHead - livePlatforms, endlessHead), and when each
+    // slot's reveal started (0 = not revealing)
+    private final PlatformGlass[] endlessRing = new PlatformGlass[ENDLESS_WINDOW];
+    private final long[] endlessRevealTime = new long[ENDLESS_WINDOW];
+    private int endlessHead = 0;
+    // How far the world has been moved back in this run (world z = stored z + worldOriginZ)
+    private volatile float worldOriginZ = 0f;
+    private volatile boolean endless = false;
+    private volatile int endlessDistance = 0;
+    private volatile int endlessBest = 0;
+
+    // Path generator, shared by levels and endless runs: which side is safe next, weighted
+    // against long same-side streaks
+    private boolean pathStarted = false;
+    private boolean pathLeftIsCorrect = false;
+    private int pathStreak = 0;
 
-    private GameState state = GameState.MENU;
+    private int nextPlatform = 0;
+    // All game time comes from clock, read once per update or command into `now`, and all
+    // randomness from random, so a recorded trace replays identically
+    private final GameClock clock;
+    private final Random random;
+    private long now;
+
+    // Written on the simulation thread, read by the UI for menus and HUD
+    private volatile GameState state = GameState.MENU;
     private long gameStartTime = 0;
     private long pauseStartTime = 0;
     private long totalPausedTime = 0;
 
     // Level system
-    private int currentLevel = 1;
-    private int highestLevelReached = 1;
-    private LevelConfig currentConfig;
+    private volatile int currentLevel = 1;
+    private volatile int highestLevelReached = 1;
+    private volatile int totalPlatforms;
+    private volatile long memoryDisplayDuration;
 
     // Memory phase tracking
-    private long memoryPhaseStartTime = 0;
+    private volatile long memoryPhaseStartTime = 0;
     private boolean memoryPhaseComplete = false;
 
     private float shakeAmount = 0f;
     private long lastJumpTime = 0;
     private long lastFrameTime = 0;
+    private float accumulator = 0f;
+    private float interpolationAlpha = 0f;
     private boolean isRespawning = false;
     private volatile boolean isActive = true;
 
-    // Scheduled events system
-    private static class ScheduledEvent {
-        long executeAt;
-        Runnable action;
-        ScheduledEvent(long executeAt, Runnable action) {
-            this.executeAt = executeAt;
-            this.action = action;
+    // Timed gameplay events, fired by step() while playing (simulation thread only)
+    private final TimerQueue timers = new TimerQueue();
+    private final TimerQueue.Task winLevelTask = (ref, arg) -> winLevel();
+    private final TimerQueue.Task breakStepTask = (ref, arg) -> breakStep((PlatformGlass) ref, arg != 0);
+    private final TimerQueue.Task failLevelTask = (ref, arg) -> {
+        if (isActive) {
+            failLevel();
         }
-    }
+    };
+
+    // State changes run on the simulation thread once one is attached; inline until then
+    private volatile Executor commandExecutor = Runnable::run;
+    private final Runnable startGameCommand = this::applyStartGame;
+    private final Runnable startEndlessCommand = this::applyStartEndless;
+    private final Runnable restartLevelCommand = this::applyRestartCurrentLevel;
+    private final Runnable pauseCommand = this::applyPause;
+    private final Runnable resumeCommand = this::applyResume;
+    private final Runnable returnToMenuCommand = this::applyReturnToMenu;
+
+    // Session being recorded, or null (simulation thread only)
+    private InputTrace.Recorder recorder = null;
+    private volatile boolean recording = false;
+
+    // Jumps come through a timestamped ring instead, drained at the start of update()
+    private static final int INPUT_CAPACITY = 64;
+    private final InputRing input = new InputRing(INPUT_CAPACITY);
+    private final InputRing.Handler inputHandler = (action, eventTimeMs) -> {
+        boolean left = action == InputRing.JUMP_LEFT;
+        if (recorder != null) {
+            recorder.record(left ? InputTrace.JUMP_LEFT : InputTrace.JUMP_RIGHT, eventTimeMs);
+        }
+        handleJump(left, eventTimeMs);
+    };
+    private volatile Runnable inputSignal = null;
 
-    private final ArrayList<ScheduledEvent> scheduledEvents = new ArrayList<>();
+    // Last accepted jump, for input-to-present latency (simulation thread only)
+    private long lastJumpEventTime = 0;
+    private int jumpCount = 0;
 
     public GameLogic() {
-        currentConfig = getLevelConfig(currentLevel);
+        this(GameClock.SYSTEM, new Random().nextLong());
+    }
+
+    /** Deterministic: the same clock readings, seed and actions give the same game. */
+    public GameLogic(GameClock clock, long seed) {
+        this.clock = clock;
+        this.random = new Random(seed);
+        now = clock.uptimeMillis();
+        for (int i = 0; i < MAX_PLATFORMS; i++) {
+            platformPool[i] = new PlatformGlass(i, true, PLATFORM_Y, 0f);
+        }
+        for (int n = 1; n <= MAX_PLATFORMS; n++) {
+            platformsByCount[n] = new PlatformGlass[n];
+            System.arraycopy(platformPool, 0, platformsByCount[n], 0, n);
+        }
+        for (int i = 0; i < ENDLESS_WINDOW; i++) {
+            endlessRing[i] = new PlatformGlass(i, true, PLATFORM_Y, 0f);
+        }
         initializeGame();
     }
 
-    private LevelConfig getLevelConfig(int level) {
+    /** Where the public actions (start, pause, menu...) run; SimulationThread::post. */
+    public void setCommandExecutor(Executor executor) {
+        commandExecutor = executor;
+    }
+
+    /** Run after each queued jump, to wake whoever drains the input (SimulationThread::wake). */
+    public void setInputSignal(Runnable signal) {
+        inputSignal = signal;
+    }
+
+    private static int tableIndex(int level) {
+        return Math.max(1, Math.min(level, LEVEL_TABLE_SIZE));
+    }
+
+    static int getLevelPlatformCount(int level) {
+        return LEVEL_PLATFORMS[tableIndex(level)];
+    }
+
+    static long getLevelMemoryTime(int level) {
+        return LEVEL_MEMORY_MS[tableIndex(level)];
+    }
+
+    // Table builders, run once per process
+
+    private static int computePlatformCount(int level) {
         int platforms;
-        long memoryTime;
 
         // How many PLAYABLE platforms you want
         int playable;
@@ -108,7 +235,11 @@ public class GameLogic {
         platforms = playable + 2;
 
         // Safety clamp
-        platforms = Math.min(platforms, MAX_PLATFORMS);
+        return Math.min(platforms, MAX_PLATFORMS);
+    }
+
+    private static long computeMemoryTime(int level) {
+        long memoryTime;
 
         // Memory time calculation - aggressive early game, scales with platforms later
         if (level <= 50) {
@@ -138,160 +269,393 @@ public class GameLogic {
         }
 
         // Clamp to minimum
-        memoryTime = Math.max(MIN_MEMORY_TIME_MS, memoryTime);
-
-        return new LevelConfig(platforms, memoryTime);
+        return Math.max(MIN_MEMORY_TIME_MS, memoryTime);
     }
 
     private void initializeGame() {
-        currentConfig = getLevelConfig(currentLevel);
+        float startZ = 0f;
+        worldOriginZ = 0f;
+        if (endless) {
+            buildEndlessWindow(startZ);
+        } else {
+            buildLevel(startZ);
+        }
 
-        if (platforms == null || platforms.length != currentConfig.totalPlatforms) {
-            platforms = new PlatformGlass[currentConfig.totalPlatforms];
+        if (player == null) {
+            player = new Player(0f, PLATFORM_Y, startZ);
+        } else {
+            player.respawnToStart(startZ);
         }
 
-        float startZ = 0f;
+        nextPlatform = 1; // Start at platform 1 (first glass bridge platform)
+        shakeAmount = 0f;
+        lastJumpTime = 0;
+        lastFrameTime = now;
+        accumulator = 0f;
+        isRespawning = false;
+        hasStartedTimer = false;
+        memoryPhaseComplete = false;
 
-        // First platform - starting platform (black, centered, full width)
-        platforms[0] = new PlatformGlass(0, true, PLATFORM_Y, startZ);
-        platforms[0].setIsStart(true);
+        timers.clear();
+    }
 
-        // Middle platforms - regular glass bridge sections with weighted randomization
-        // This prevents long streaks of same side being correct
-        int consecutiveCount = 0;
-        boolean lastLeftIsCorrect = random.nextBoolean(); // First platform is pure random
+    private void buildLevel(float startZ) {
+        totalPlatforms = getLevelPlatformCount(currentLevel);
+        memoryDisplayDuration = getLevelMemoryTime(currentLevel);
 
-        for (int i = 1; i < currentConfig.totalPlatforms - 1; i++) {
-            boolean leftIsCorrect;
+        // Pooled instances, reset in place: a rebuild allocates nothing
+        platforms = platformsByCount[totalPlatforms];
+        livePlatforms = totalPlatforms;
 
-            if (i == 1) {
-                // First glass platform is pure random
-                leftIsCorrect = lastLeftIsCorrect;
-            } else {
-                // Calculate probability based on consecutive count
-                // Much more aggressive penalty to prevent long streaks
-                float baseProbability = 0.5f;
-                float penaltyPerConsecutive = 0.25f; // Increased from 0.15f
-                float probability = baseProbability - (consecutiveCount * penaltyPerConsecutive);
-
-                // Hard cap at 4 consecutive - force switch after 4
-                if (consecutiveCount >= 4) {
-                    leftIsCorrect = !lastLeftIsCorrect; // Force switch
-                    consecutiveCount = 0;
-                } else {
-                    // Clamp between 5% and 95% to keep some randomness
-                    probability = Math.max(0.05f, Math.min(0.95f, probability));
-
-                    // Decide if we should keep the same side correct
-                    if (random.nextFloat() < probability) {
-                        leftIsCorrect = lastLeftIsCorrect; // Same as last
-                        consecutiveCount++;
-                    } else {
-                        leftIsCorrect = !lastLeftIsCorrect; // Switch sides
-                        consecutiveCount = 0; // Reset counter
-                    }
-                }
-            }
+        // First platform - starting platform (black, centered, full width)
+        platforms[0].reset(0, true, PLATFORM_Y, startZ);
+        platforms[0].setIsStart(true);
 
-            platforms[i] = new PlatformGlass(i, leftIsCorrect, PLATFORM_Y, startZ + i * PLATFORM_Z_SPACING);
-            lastLeftIsCorrect = leftIsCorrect;
+        // Middle platforms - regular glass bridge sections
+        resetPath();
+        for (int i = 1; i < totalPlatforms - 1; i++) {
+            platforms[i].reset(i, nextPathSide(), PLATFORM_Y, startZ + i * PLATFORM_Z_SPACING);
         }
 
         // Last platform - finish platform (black, centered, full width)
-        platforms[currentConfig.totalPlatforms - 1] = new PlatformGlass(
-                currentConfig.totalPlatforms - 1,
+        platforms[totalPlatforms - 1].reset(
+                totalPlatforms - 1,
                 true,
                 PLATFORM_Y,
-                startZ + (currentConfig.totalPlatforms - 1) * PLATFORM_Z_SPACING
+                startZ + (totalPlatforms - 1) * PLATFORM_Z_SPACING
         );
-        platforms[currentConfig.totalPlatforms - 1].setIsFinish(true);
+        platforms[totalPlatforms - 1].setIsFinish(true);
+    }
 
-        if (player == null) {
-            player = new Player(0f, PLATFORM_Y, startZ);
-        } else {
-            player.respawnToStart(startZ);
+    // Start platform plus ENDLESS_AHEAD glass platforms; the rest is generated as the player goes
+    private void buildEndlessWindow(float startZ) {
+        memoryDisplayDuration = ENDLESS_MEMORY_TIME_MS;
+        endlessDistance = 0;
+
+        platforms = endlessRing;
+        endlessRing[0].reset(0, true, PLATFORM_Y, startZ);
+        endlessRing[0].setIsStart(true);
+        endlessRevealTime[0] = 0;
+        endlessHead = 1;
+        livePlatforms = 1;
+
+        resetPath();
+        while (endlessHead <= ENDLESS_AHEAD) {
+            extendEndless();
         }
+    }
 
-        nextPlatform = 1; // Start at platform 1 (first glass bridge platform)
-        shakeAmount = 0f;
-        lastJumpTime = 0;
-        lastFrameTime = SystemClock.uptimeMillis();
-        isRespawning = false;
-        hasStartedTimer = false;
-        memoryPhaseComplete = false;
+    // Generate the next endless platform into the slot of the oldest one, one spacing past
+    // the previous platform; returns the slot
+    private int extendEndless() {
+        int n = endlessHead++;
+        int slot = n % ENDLESS_WINDOW;
+        float z = endlessRing[(n - 1) % ENDLESS_WINDOW].getZ() + PLATFORM_Z_SPACING;
+        endlessRing[slot].reset(n, nextPathSide(), PLATFORM_Y, z);
+        endlessRevealTime[slot] = 0;
+        livePlatforms = Math.min(endlessHead, ENDLESS_WINDOW);
+        return slot;
+    }
+
+    // After a safe landing: keep ENDLESS_AHEAD platforms ahead, revealing each new one briefly
+    private void advanceEndless() {
+        endlessDistance = nextPlatform - 1;
+        if (endlessDistance > endlessBest) {
+            endlessBest = endlessDistance;
+        }
+        while (endlessHead < nextPlatform + ENDLESS_AHEAD) {
+            int slot = extendEndless();
+            endlessRing[slot].showMemoryHint(true);
+            endlessRevealTime[slot] = now;
+        }
+        if (platformAt(nextPlatform - 1).getZ() >= ENDLESS_REBASE_Z) {
+            rebaseEndless();
+        }
+    }
+
+    // Move the window and the player back by ENDLESS_REBASE_Z. Positions move together with
+    // the state they are interpolated from, so the next snapshot draws the same picture.
+    private void rebaseEndless() {
+        for (PlatformGlass p : endlessRing) {
+            p.shiftZ(-ENDLESS_REBASE_Z);
+        }
+        player.shiftZ(-ENDLESS_REBASE_Z);
+        worldOriginZ += ENDLESS_REBASE_Z;
+    }
 
-        scheduledEvents.clear();
+    // Fade out reveals that have been up long enough (endless, while playing)
+    private void updateEndlessReveals(long currentTime) {
+        for (int i = 0; i < livePlatforms; i++) {
+            long revealTime = endlessRevealTime[i];
+            if (revealTime == 0) continue;
+
+            long elapsed = currentTime - revealTime;
+            if (elapsed >= ENDLESS_REVEAL_MS + MEMORY_FADE_DURATION_MS) {
+                endlessRing[i].showMemoryHint(false);
+                endlessRevealTime[i] = 0;
+            } else if (elapsed >= ENDLESS_REVEAL_MS) {
+                float fadeProgress = (elapsed - ENDLESS_REVEAL_MS) / (float) MEMORY_FADE_DURATION_MS;
+                endlessRing[i].setMemoryHintAlpha(1.0f - fadeProgress);
+            }
+        }
+    }
+
+    private PlatformGlass platformAt(int n) {
+        return endless ? endlessRing[n % ENDLESS_WINDOW] : platforms[n];
+    }
+
+    // Hints on every live glass platform (not the stone start/finish)
+    private void showAllHints(boolean show) {
+        for (int i = 0; i < livePlatforms; i++) {
+            PlatformGlass p = platforms[i];
+            if (!p.isStart() && !p.isFinish()) {
+                p.showMemoryHint(show);
+            }
+        }
+    }
+
+    private void setAllHintAlpha(float alpha) {
+        for (int i = 0; i < livePlatforms; i++) {
+            PlatformGlass p = platforms[i];
+            if (!p.isStart() && !p.isFinish()) {
+                p.setMemoryHintAlpha(alpha);
+            }
+        }
+    }
+
+    private void resetPath() {
+        pathLeftIsCorrect = random.nextBoolean(); // First platform is pure random
+        pathStreak = 0;
+        pathStarted = false;
+    }
+
+    // Weighted randomization that prevents long streaks of the same side being correct
+    private boolean nextPathSide() {
+        if (!pathStarted) {
+            pathStarted = true;
+            return pathLeftIsCorrect;
+        }
+
+        boolean leftIsCorrect;
+
+        // Calculate probability based on consecutive count
+        // Much more aggressive penalty to prevent long streaks
+        float baseProbability = 0.5f;
+        float penaltyPerConsecutive = 0.25f; // Increased from 0.15f
+        float probability = baseProbability - (pathStreak * penaltyPerConsecutive);
+
+        // Hard cap at 4 consecutive - force switch after 4
+        if (pathStreak >= 4) {
+            leftIsCorrect = !pathLeftIsCorrect; // Force switch
+            pathStreak = 0;
+        } else {
+            // Clamp between 5% and 95% to keep some randomness
+            probability = Math.max(0.05f, Math.min(0.95f, probability));
+
+            // Decide if we should keep the same side correct
+            if (random.nextFloat() < probability) {
+                leftIsCorrect = pathLeftIsCorrect; // Same as last
+                pathStreak++;
+            } else {
+                leftIsCorrect = !pathLeftIsCorrect; // Switch sides
+                pathStreak = 0; // Reset counter
+            }
+        }
+
+        pathLeftIsCorrect = leftIsCorrect;
+        return leftIsCorrect;
     }
 
     public void startGame() {
+        commandExecutor.execute(startGameCommand);
+    }
+
+    /** Start an endless run: one bridge that never finishes, falling restarts the run. */
+    public void startEndless() {
+        commandExecutor.execute(startEndlessCommand);
+    }
+
+    /** Restart the current level, or the endless run. */
+    public void restartCurrentLevel() {
+        commandExecutor.execute(restartLevelCommand);
+    }
+
+    public void pauseGame() {
+        commandExecutor.execute(pauseCommand);
+    }
+
+    public void resumeGame() {
+        commandExecutor.execute(resumeCommand);
+    }
+
+    public void returnToMenu() {
+        commandExecutor.execute(returnToMenuCommand);
+    }
+
+    /**
+     * Queue a jump to the left platform. UI thread only (the single input producer);
+     * eventTimeMs is the MotionEvent/KeyEvent time, on the SystemClock.uptimeMillis base.
+     */
+    public void jumpLeft(long eventTimeMs) {
+        queueInput(InputRing.JUMP_LEFT, eventTimeMs);
+    }
+
+    /** As jumpLeft, for the right platform. */
+    public void jumpRight(long eventTimeMs) {
+        queueInput(InputRing.JUMP_RIGHT, eventTimeMs);
+    }
+
+    private void queueInput(int action, long eventTimeMs) {
+        if (input.offer(action, eventTimeMs)) {
+            Runnable signal = inputSignal;
+            if (signal != null) {
+                signal.run();
+            }
+        }
+    }
+
+    /**
+     * Start recording an InputTrace. Resets to the menu at level 1 with a fresh seed, the
+     * state a new GameLogic(clock, seed) starts in, so the trace replays from there.
+     */
+    public void startRecording() {
+        commandExecutor.execute(() -> {
+            now = clock.uptimeMillis();
+            long seed = random.nextLong();
+            random.setSeed(seed);
+            currentLevel = 1;
+            endless = false;
+            state = GameState.MENU;
+            initializeGame();
+            totalPausedTime = 0;
+            recorder = new InputTrace.Recorder(seed, now);
+            recording = true;
+        });
+    }
+
+    /** Stop recording and write the trace; file IO runs on the simulation thread. */
+    public void stopRecording(File file) {
+        commandExecutor.execute(() -> {
+            InputTrace.Recorder r = recorder;
+            recorder = null;
+            recording = false;
+            if (r == null) return;
+            try {
+                r.writeTo(file);
+                Log.i(TAG, "Wrote " + r.getRecordCount() + " trace records to " + file);
+            } catch (IOException e) {
+                Log.e(TAG, "Could not write trace " + file, e);
+            }
+        });
+    }
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+    private void applyStartGame() {
+        beginCommand(InputTrace.START);
         currentLevel = 1;
+        endless = false;
         initializeGame();
         state = GameState.MEMORY_PHASE;
-        memoryPhaseStartTime = SystemClock.uptimeMillis();
+        memoryPhaseStartTime = now;
         totalPausedTime = 0;
-        lastFrameTime = SystemClock.uptimeMillis();
-        lastJumpTime = SystemClock.uptimeMillis() - INPUT_DELAY_MS;
+        lastFrameTime = now;
+        lastJumpTime = now - INPUT_DELAY_MS;
 
         // Show hints on all platforms
-        for (int i = 1; i < currentConfig.totalPlatforms - 1; i++) {
-            platforms[i].showMemoryHint(true);
-        }
+        showAllHints(true);
     }
 
-    public void restartCurrentLevel() {
+    private void applyStartEndless() {
+        beginCommand(InputTrace.ENDLESS);
+        currentLevel = 1;
+        endless = true;
         initializeGame();
         state = GameState.MEMORY_PHASE;
-        memoryPhaseStartTime = SystemClock.uptimeMillis();
+        memoryPhaseStartTime = now;
         gameStartTime = 0;
         totalPausedTime = 0;
-        lastFrameTime = SystemClock.uptimeMillis();
-        lastJumpTime = SystemClock.uptimeMillis() - INPUT_DELAY_MS;
+        lastFrameTime = now;
+        lastJumpTime = now - INPUT_DELAY_MS;
+
+        // Show hints on the platforms ahead; later ones are revealed as they are generated
+        showAllHints(true);
+    }
+
+    private void applyRestartCurrentLevel() {
+        beginCommand(InputTrace.RESTART);
+        initializeGame();
+        state = GameState.MEMORY_PHASE;
+        memoryPhaseStartTime = now;
+        gameStartTime = 0;
+        totalPausedTime = 0;
+        lastFrameTime = now;
+        lastJumpTime = now - INPUT_DELAY_MS;
         hasStartedTimer = false;
 
         // Show hints on all platforms
-        for (int i = 1; i < currentConfig.totalPlatforms - 1; i++) {
-            platforms[i].showMemoryHint(true);
-        }
+        showAllHints(true);
     }
 
-    public void pauseGame() {
+    /** Simulation thread only: restart at the given level, as a win or fail would (benchmarks). */
+    void restartAtLevel(int level) {
+        currentLevel = Math.max(1, level);
+        applyRestartCurrentLevel();
+    }
+
+    private void applyPause() {
+        beginCommand(InputTrace.PAUSE);
         if (state != GameState.PLAYING) return;
-        pauseStartTime = SystemClock.uptimeMillis();
+        pauseStartTime = now;
         state = GameState.PAUSED;
     }
 
-    public void resumeGame() {
+    private void applyResume() {
+        beginCommand(InputTrace.RESUME);
         if (state != GameState.PAUSED) return;
-        long pauseDuration = SystemClock.uptimeMillis() - pauseStartTime;
+        long pauseDuration = now - pauseStartTime;
         totalPausedTime += pauseDuration;
         state = GameState.PLAYING;
-        lastFrameTime = SystemClock.uptimeMillis();
+        lastFrameTime = now;
+
+        // Reveals in progress keep the time they had left
+        if (endless) {
+            for (int i = 0; i < livePlatforms; i++) {
+                if (endlessRevealTime[i] != 0) {
+                    endlessRevealTime[i] += pauseDuration;
+                }
+            }
+        }
     }
 
-    public void returnToMenu() {
+    private void applyReturnToMenu() {
+        beginCommand(InputTrace.MENU);
         currentLevel = 1;
+        endless = false;
         state = GameState.MENU;
         initializeGame();
         totalPausedTime = 0;
     }
 
-    private void scheduleOnGLThread(Runnable action, long delayMs) {
-        long runAt = SystemClock.uptimeMillis() + Math.max(0, delayMs);
-        synchronized (scheduledEvents) {
-            scheduledEvents.add(new ScheduledEvent(runAt, action));
-        }
-    }
-
-    public void jumpLeft() {
-        handleJump(true);
+    private long schedule(TimerQueue.Task task, long delayMs, Object ref, int arg) {
+        return timers.schedule(task, now + Math.max(0, delayMs), ref, arg);
     }
 
-    public void jumpRight() {
-        handleJump(false);
+    // Every command reads the clock once, and is recorded with that time
+    private void beginCommand(int traceType) {
+        now = clock.uptimeMillis();
+        InputTrace.Recorder r = recorder;
+        if (r != null) {
+            r.record(traceType, now);
+        }
     }
 
-    private void handleJump(boolean left) {
-        if (!isActive || platforms == null || player == null || nextPlatform >= currentConfig.totalPlatforms) {
+    // Debounced on event time, so a late drain doesn't swallow or let through a tap
+    private void handleJump(boolean left, long eventTime) {
+        if (!isActive || platforms == null || player == null
+                || (!endless && nextPlatform >= totalPlatforms)) {
             return;
         }
 
@@ -304,19 +668,20 @@ public class GameLogic {
             return;
         }
 
-        long currentTime = SystemClock.uptimeMillis();
-        if (currentTime - lastJumpTime < INPUT_DELAY_MS) {
+        if (eventTime - lastJumpTime < INPUT_DELAY_MS) {
             return;
         }
-        lastJumpTime = currentTime;
+        lastJumpTime = eventTime;
+        lastJumpEventTime = eventTime;
+        jumpCount++;
 
         // Start timer on first jump
         if (!hasStartedTimer) {
             hasStartedTimer = true;
-            gameStartTime = currentTime;
+            gameStartTime = eventTime;
         }
 
-        PlatformGlass p = platforms[nextPlatform];
+        PlatformGlass p = platformAt(nextPlatform);
 
         // Always jump to the platform first
         player.jumpTo(p.getX(left), PLATFORM_Y, p.getZ());
@@ -326,29 +691,29 @@ public class GameLogic {
             // Correct platform - just land with shake
             shakeAmount = JUMP_LAND_SHAKE;
 
-            if (nextPlatform >= currentConfig.totalPlatforms) {
-                scheduleOnGLThread(this::winLevel, 0);
+            if (endless) {
+                advanceEndless();
+            } else if (nextPlatform >= totalPlatforms) {
+                schedule(winLevelTask, 0, null, 0);
             }
         } else {
-            // Wrong platform - wait for player to land, then break it
-            scheduleOnGLThread(() -> {
-                if (isActive && player != null && platforms != null && state == GameState.PLAYING) {
-                    // Break the platform
-                    p.breakSide(left);
-                    shakeAmount = GLASS_BREAK_SHAKE;
-
-                    // Make player fall
-                    player.fall();
-                    isRespawning = true;
-
-                    // Schedule level decrease after falling
-                    scheduleOnGLThread(() -> {
-                        if (isActive) {
-                            failLevel();
-                        }
-                    }, RESPAWN_DELAY_MS);
-                }
-            }, 300); // Wait 300ms for player to land before breaking
+            // Wrong platform - wait 300ms for the player to land, then break it
+            schedule(breakStepTask, 300, p, left ? 1 : 0);
+        }
+    }
+
+    private void breakStep(PlatformGlass p, boolean left) {
+        if (isActive && player != null && platforms != null && state == GameState.PLAYING) {
+            // Break the platform
+            p.breakSide(left);
+            shakeAmount = GLASS_BREAK_SHAKE;
+
+            // Make player fall
+            player.fall();
+            isRespawning = true;
+
+            // Schedule level decrease after falling
+            schedule(failLevelTask, RESPAWN_DELAY_MS, null, 0);
         }
     }
 
@@ -367,8 +732,10 @@ public class GameLogic {
     private void failLevel() {
         if (!isActive) return;
 
-        // Go back one level (minimum level 1)
-        currentLevel = Math.max(1, currentLevel - 1);
+        // Go back one level (minimum level 1); an endless run starts over
+        if (!endless) {
+            currentLevel = Math.max(1, currentLevel - 1);
+        }
 
         // Reset game state
         state = GameState.PLAYING;
@@ -379,36 +746,56 @@ public class GameLogic {
 
         // Start memory phase for the new level
         state = GameState.MEMORY_PHASE;
-        memoryPhaseStartTime = SystemClock.uptimeMillis();
+        memoryPhaseStartTime = now;
         gameStartTime = 0;
         totalPausedTime = 0;
-        lastFrameTime = SystemClock.uptimeMillis();
-        lastJumpTime = SystemClock.uptimeMillis() - INPUT_DELAY_MS;
+        lastFrameTime = now;
+        lastJumpTime = now - INPUT_DELAY_MS;
         hasStartedTimer = false;
 
         // Show hints on all platforms
         if (platforms != null) {
-            for (int i = 1; i < currentConfig.totalPlatforms - 1; i++) {
-                if (platforms[i] != null) {
-                    platforms[i].showMemoryHint(true);
-                }
-            }
+            showAllHints(true);
         }
     }
 
+    /**
+     * Apply queued input, then advance the simulation by whole SIM_STEPs for the real time
+     * since the last call.
+     * Simulation thread only; drawing interpolates a RenderSnapshot of the result.
+     */
     public void update() {
         if (!isActive) return;
         if (player == null || platforms == null) return;
 
-        long currentTime = SystemClock.uptimeMillis();
-        float deltaTime = (currentTime - lastFrameTime) / 1000.0f;
+        long currentTime = clock.uptimeMillis();
+        now = currentTime;
+        input.drainTo(inputHandler);
+        if (recorder != null) {
+            recorder.record(InputTrace.UPDATE, currentTime);
+        }
+        float frameTime = (currentTime - lastFrameTime) / 1000.0f;
         lastFrameTime = currentTime;
-        deltaTime = Math.min(deltaTime, MAX_DELTA_TIME);
+        accumulator += Math.min(Math.max(frameTime, 0f), MAX_FRAME_TIME);
+
+        while (accumulator >= SIM_STEP) {
+            step(currentTime);
+            accumulator -= SIM_STEP;
+        }
+        // A step that re-initialised the level reset the accumulator mid-loop
+        accumulator = Math.max(accumulator, 0f);
+
+        interpolationAlpha = accumulator / SIM_STEP;
+    }
+
+    // One fixed step; events fired here may re-initialise the level
+    private void step(long currentTime) {
+        if (player == null || platforms == null) return;
 
         // Handle memory phase
         if (state == GameState.MEMORY_PHASE) {
             long elapsed = currentTime - memoryPhaseStartTime;
-            long totalMemoryDuration = currentConfig.memoryDisplayDuration + MEMORY_FADE_DURATION_MS;
+            long totalMemoryDuration = memoryDisplayDuration + MEMORY_FADE_DURATION_MS;
 
             if (elapsed >= totalMemoryDuration) {
                 // Memory phase complete - transition to playing
@@ -416,41 +803,20 @@ public class GameLogic {
                 memoryPhaseComplete = true;
 
                 // Hide all hints
-                for (int i = 1; i < currentConfig.totalPlatforms - 1; i++) {
-                    platforms[i].showMemoryHint(false);
-                }
-            } else if (elapsed >= currentConfig.memoryDisplayDuration) {
+                showAllHints(false);
+            } else if (elapsed >= memoryDisplayDuration) {
                 // Fade out phase
-                float fadeProgress = (elapsed - currentConfig.memoryDisplayDuration) / (float) MEMORY_FADE_DURATION_MS;
-                for (int i = 1; i < currentConfig.totalPlatforms - 1; i++) {
-                    platforms[i].setMemoryHintAlpha(1.0f - fadeProgress);
-                }
+                float fadeProgress = (elapsed - memoryDisplayDuration) / (float) MEMORY_FADE_DURATION_MS;
+                setAllHintAlpha(1.0f - fadeProgress);
             }
         }
 
         if (state == GameState.PLAYING) {
-            // Execute scheduled events
-            ArrayList<ScheduledEvent> toExecute = new ArrayList<>();
-            synchronized (scheduledEvents) {
-                for (int i = scheduledEvents.size() - 1; i >= 0; i--) {
-                    ScheduledEvent ev = scheduledEvents.get(i);
-                    if (ev.executeAt <= currentTime) {
-                        toExecute.add(ev);
-                    }
-                }
-                // Remove executed events
-                for (ScheduledEvent ev : toExecute) {
-                    scheduledEvents.remove(ev);
-                }
-            }
+            // Fire timed events; they may re-initialise the level
+            timers.runDue(currentTime);
 
-            // Execute outside the synchronized block to avoid deadlocks
-            for (ScheduledEvent ev : toExecute) {
-                try {
-                    ev.action.run();
-                } catch (Throwable t) {
-                    t.printStackTrace();
-                }
+            if (endless) {
+                updateEndlessReveals(currentTime);
             }
 
             if (player != null) {
@@ -458,28 +824,29 @@ public class GameLogic {
             }
         }
 
-        for (PlatformGlass p : platforms) {
-            if (p != null) {
-                p.update();
-            }
+        // Only the live platforms: the level, or the endless window
+        for (int i = 0; i < livePlatforms; i++) {
+            platforms[i].update();
         }
 
         if (shakeAmount > 0) {
-            shakeAmount = Math.max(0f, shakeAmount - SHAKE_DECAY_RATE * deltaTime);
+            shakeAmount = Math.max(0f, shakeAmount - SHAKE_DECAY_RATE * SIM_STEP);
         }
     }
 
-    public void draw(float[] vpMatrix) {
-        if (vpMatrix == null || platforms == null || player == null) {
-            return;
-        }
+    /** Accepted jumps so far; changes when a new jump reaches the simulation. */
+    public int getJumpCount() {
+        return jumpCount;
+    }
 
-        for (PlatformGlass p : platforms) {
-            if (p != null) {
-                p.draw(vpMatrix);
-            }
-        }
-        player.draw(vpMatrix);
+    /** Event time of the last accepted jump (SystemClock.uptimeMillis base). */
+    public long getLastJumpEventTime() {
+        return lastJumpEventTime;
+    }
+
+    /** Progress into the next simulation step, [0, 1). */
+    public float getInterpolationAlpha() {
+        return interpolationAlpha;
     }
 
     public float getShakeAmount() {
@@ -488,15 +855,15 @@ public class GameLogic {
 
     public float getMemoryPhaseProgress() {
         if (state != GameState.MEMORY_PHASE) return 1.0f;
-        long elapsed = SystemClock.uptimeMillis() - memoryPhaseStartTime;
-        long totalDuration = currentConfig.memoryDisplayDuration + MEMORY_FADE_DURATION_MS;
+        long elapsed = clock.uptimeMillis() - memoryPhaseStartTime;
+        long totalDuration = memoryDisplayDuration + MEMORY_FADE_DURATION_MS;
         return Math.min(1.0f, elapsed / (float) totalDuration);
     }
 
     public long getMemoryPhaseRemainingMs() {
         if (state != GameState.MEMORY_PHASE) return 0;
-        long elapsed = SystemClock.uptimeMillis() - memoryPhaseStartTime;
-        long remaining = currentConfig.memoryDisplayDuration - elapsed;
+        long elapsed = clock.uptimeMillis() - memoryPhaseStartTime;
+        long remaining = memoryDisplayDuration - elapsed;
         return Math.max(0, remaining);
     }
 
@@ -505,15 +872,42 @@ public class GameLogic {
     public boolean isInMemoryPhase() { return state == GameState.MEMORY_PHASE; }
     public boolean isGameWon() { return state == GameState.WON; }
 
+    /**
+     * Simulation thread only. True when update() has nothing left to do until a command
+     * arrives: menu, paused or won, with the shake and any breaking glass settled.
+     */
+    public boolean isIdle() {
+        GameState s = state;
+        if (s != GameState.MENU && s != GameState.PAUSED && s != GameState.WON) return false;
+        if (shakeAmount > 0f) return false;
+        if (platforms != null) {
+            for (int i = 0; i < livePlatforms; i++) {
+                if (!platforms[i].isSettled()) return false;
+            }
+        }
+        return true;
+    }
+
     public int getCurrentLevel() { return currentLevel; }
     public int getHighestLevelReached() { return highestLevelReached; }
-    public int getCurrentPlatformCount() { return currentConfig.totalPlatforms; }
-    public float getCurrentMemoryTimeSeconds() { return currentConfig.memoryDisplayDuration / 1000f; }
+    public int getCurrentPlatformCount() { return totalPlatforms; }
+
+    public boolean isEndless() { return endless; }
+    /** Platforms crossed in the current endless run, and the best run so far. */
+    public int getEndlessDistance() { return endlessDistance; }
+    public int getEndlessBest() { return endlessBest; }
+    /** Distance the endless world has been moved back towards z = 0; 0 outside endless runs. */
+    public float getWorldOriginZ() { return worldOriginZ; }
+
+    /** Simulation thread only: platforms[0 .. count) are live. */
+    int getLivePlatformCount() { return livePlatforms; }
+    /** Simulation thread only: where the next jump lands. */
+    PlatformGlass getNextPlatform() { return platformAt(nextPlatform); }
+    public float getCurrentMemoryTimeSeconds() { return memoryDisplayDuration / 1000f; }
 
     public void cleanup() {
         isActive = false;
-        synchronized (scheduledEvents) {
-            scheduledEvents.clear();
-        }
+        // Called once the simulation thread has stopped
+        timers.clear();
     }
 }
\ No newline at end of file
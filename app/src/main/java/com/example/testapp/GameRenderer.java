@@ -9,12 +9,15 @@ import android.os.SystemClock;
 import javax.microedition.khronos.egl.EGLConfig;
 import javax.microedition.khronos.opengles.GL10;
 
+import java.io.File;
 import java.nio.FloatBuffer;
 import java.util.Random;
 
 public class GameRenderer implements GLSurfaceView.Renderer {
 
     private GameLogic logic;
+    // Steps the game off the GL thread; frames draw its latest snapshot
+    private SimulationThread simulation;
     private Context context;
     private Random shakeRandom = new Random();
 
@@ -31,208 +34,243 @@ public class GameRenderer implements GLSurfaceView.Renderer {
     private static final float LOOK_AHEAD_DISTANCE = 8f;
     private static final float SHAKE_DAMPING = 0.5f;
 
-    // Library environment
-    private Cube[] leftBookshelves;
-    private Cube[] rightBookshelves;
-    private Cube[] leftBooks;
-    private Cube[] rightBooks;
-    private static final int BOOKSHELF_COUNT = 8;
-    private static final int BOOKS_PER_SHELF = 5;
+    // Library corridor, streamed in chunks (see LibraryChunk): the chunk around the camera
+    // and the ones ahead of it, recycled as the camera moves; chunk n lives in slot n % count
+    private static final int LIBRARY_CHUNK_COUNT = 6;
+    private final LibraryChunk[] libraryChunks = new LibraryChunk[LIBRARY_CHUNK_COUNT];
+    private final long librarySeed = new Random().nextLong();
+    private int firstLibraryChunk = 0;
+    // Whole chunks the world has been moved back by (endless rebase, see GameLogic)
+    private int libraryOriginChunk = 0;
 
-    // Floating magical books
-    private MagicalBook[] floatingBooks;
-    private static final int FLOATING_BOOK_COUNT = 15;
-
-    // Candles on shelves
-    private Candle[] leftCandles;
-    private Candle[] rightCandles;
-
-    // Animated time for effects
+    // Animated time for effects, in seconds
     private float animTime = 0f;
+    private long lastAnimNanos = 0;
+    private static final float MAX_ANIM_STEP = 0.1f; // don't jump after a pause
+
+    private final Frustum frustum = new Frustum();
+
+    // Optional offscreen rendering at a frame-time driven scale (off by default)
+    private final ResolutionScaler resolutionScaler = new ResolutionScaler();
+
+    // Book detail by camera distance (the camera sits ~13.5 units from the player)
+    private static final float BOOK_LOD_MID_DISTANCE = 20f;
+    private static final float BOOK_LOD_FAR_DISTANCE = 35f;
+    private static final float BOOK_LOD_HYSTERESIS = 3f;
+    private final BookLod bookLod = new BookLod(
+            BOOK_LOD_MID_DISTANCE, BOOK_LOD_FAR_DISTANCE, BOOK_LOD_HYSTERESIS);
+
+    // Scene detail per quality tier (LOW, MEDIUM, HIGH), chosen by qualityGovernor
+    private static final float[] QUALITY_BOOK_FRACTION = {0.34f, 0.67f, 1f};
+    private static final float[] QUALITY_BOOK_EFFECT_DISTANCE = {0f, 12f, BOOK_LOD_MID_DISTANCE};
+    private static final float[] QUALITY_BOOK_FAR_DISTANCE = {18f, 25f, BOOK_LOD_FAR_DISTANCE};
+    private static final int[] QUALITY_OUTLINE_LAYERS = {1, 2, 3};
+    private static final boolean[] QUALITY_SHARD_TRAILS = {false, true, true};
+    // Past cutting detail at LOW, trade resolution for frame time (resolutionScaler)
+    private static final boolean[] QUALITY_DYNAMIC_RESOLUTION = {true, false, false};
+    private final QualityGovernor qualityGovernor = new QualityGovernor();
+    private int visibleBookCount = LibraryChunk.BOOKS_PER_CHUNK; // per chunk
+
+    // Off while GameSurfaceView renders on demand or at a capped rate
+    private volatile boolean frameTimingEnabled = true;
+
+    // Jumps seen in drawn snapshots, and the one drawn this frame (for input latency)
+    private int presentedJumpCount = 0;
+    private int frameJumpCount = 0;
+    private long frameJumpEventTime = 0;
+
+    // Camera position of the current frame, used for LOD distances
+    private float cameraX, cameraY, cameraZ;
+
+    // Per-frame scratch, reused so the draw path allocates nothing (GL thread only)
+    private final Cube scratchCube = new Cube(0, 0, 0);
+    private final float[] flameColor = {1f, 0.7f, 0.2f, 0.7f};
+    private final float[] effectColor = new float[4];
+    private final float[] worldTransform = new float[16];
+    private final float[] pieceLocal = new float[16];
+    private final float[] pieceModel = new float[16];
 
-    private static class MagicalBook {
-        float x, y, z;
-        float orbitRadius;
-        float orbitSpeed;
-        float bobSpeed;
-        float bobOffset;
-        float size;
-        float rotationAngle;
-        float tiltAngle;
-        float spinSpeed;
-        float pageFlipSpeed;
-        float[] coverColor;
-        float[] pageColor;
-        int bookStyle; // 0=ancient, 1=mystical, 2=glowing
-
-        MagicalBook(float x, float y, float z, Random rand) {
-            this.x = x;
-            this.y = y;
-            this.z = z;
-            this.orbitRadius = rand.nextFloat() * 2f + 0.5f;
-            this.orbitSpeed = rand.nextFloat() * 0.3f + 0.2f;
-            this.bobSpeed = rand.nextFloat() * 0.8f + 0.4f;
-            this.bobOffset = rand.nextFloat() * 6.28f;
-            this.size = rand.nextFloat() * 0.3f + 0.25f;
-            this.rotationAngle = rand.nextFloat() * 360f;
-            this.tiltAngle = rand.nextFloat() * 30f - 15f;
-            this.spinSpeed = rand.nextFloat() * 20f + 10f;
-            this.pageFlipSpeed = rand.nextFloat() * 2f + 1f;
-            this.bookStyle = rand.nextInt(3);
-
-            // Generate varied cover colors
-            switch(bookStyle) {
-                case 0: // Ancient leather
-                    this.coverColor = new float[]{
-                            0.3f + rand.nextFloat() * 0.2f,
-                            0.15f + rand.nextFloat() * 0.1f,
-                            0.08f,
-                            0.95f
-                    };
-                    break;
-                case 1: // Mystical blue/purple
-                    this.coverColor = new float[]{
-                            0.2f + rand.nextFloat() * 0.2f,
-                            0.15f + rand.nextFloat() * 0.2f,
-                            0.5f + rand.nextFloat() * 0.3f,
-                            0.95f
-                    };
-                    break;
-                case 2: // Glowing gold/red
-                    this.coverColor = new float[]{
-                            0.6f + rand.nextFloat() * 0.2f,
-                            0.3f + rand.nextFloat() * 0.2f,
-                            0.1f,
-                            0.95f
-                    };
-                    break;
-            }
-
-            this.pageColor = new float[]{
-                    0.95f - rand.nextFloat() * 0.1f,
-                    0.9f - rand.nextFloat() * 0.1f,
-                    0.75f - rand.nextFloat() * 0.1f,
-                    0.95f
-            };
-        }
+    public GameRenderer(Context ctx) {
+        this(new GameLogic());
+        context = ctx;
+        ShaderHelper.setProgramCache(new ProgramCache(new File(ctx.getCodeCacheDir(), "programs")));
     }
 
-    private static class Candle {
-        float x, y, z;
-        float flickerOffset;
-
-        Candle(float x, float y, float z, Random rand) {
-            this.x = x;
-            this.y = y;
-            this.z = z;
-            this.flickerOffset = rand.nextFloat() * 6.28f;
+    /** Drives the given logic, without a Context or program cache (JVM tests). */
+    GameRenderer(GameLogic logic) {
+        this.logic = logic;
+        simulation = new SimulationThread(logic);
+        logic.setCommandExecutor(simulation::post);
+        logic.setInputSignal(simulation::wake);
+        simulation.start();
+        for (int i = 0; i < LIBRARY_CHUNK_COUNT; i++) {
+            libraryChunks[i] = new LibraryChunk();
+            libraryChunks[i].generate(i, 0, librarySeed); // uploaded with the surface
         }
     }
 
-    public GameRenderer(Context ctx) {
-        context = ctx;
-        logic = new GameLogic();
-        initializeLibrary();
+    // Keep the chunk holding z and the ones after it live. Recycled slots are regenerated
+    // nearest first, at most one per frame, so a jump back to the start spreads its work
+    // over several frames; drawScene skips slots that don't hold their chunk yet.
+    // Nothing is generated before z = 0, where the bridge starts.
+    private void updateLibraryChunks(float z) {
+        firstLibraryChunk = Math.max(0, (int) Math.floor(z / LibraryChunk.LENGTH) + libraryOriginChunk);
+        for (int n = firstLibraryChunk; n < firstLibraryChunk + LIBRARY_CHUNK_COUNT; n++) {
+            LibraryChunk chunk = libraryChunks[n % LIBRARY_CHUNK_COUNT];
+            if (chunk.getIndex() != n) {
+                chunk.generate(n, libraryOriginChunk, librarySeed); // uploaded by the caller this frame
+                return;
+            }
+        }
     }
 
-    private void initializeLibrary() {
-        Random rand = new Random();
-
-        // Create towering bookshelves along the sides
-        leftBookshelves = new Cube[BOOKSHELF_COUNT];
-        rightBookshelves = new Cube[BOOKSHELF_COUNT];
-        leftBooks = new Cube[BOOKSHELF_COUNT * BOOKS_PER_SHELF];
-        rightBooks = new Cube[BOOKSHELF_COUNT * BOOKS_PER_SHELF];
-
-        for (int i = 0; i < BOOKSHELF_COUNT; i++) {
-            leftBookshelves[i] = new Cube(-5f, 0f, i * 5f);
-            rightBookshelves[i] = new Cube(5f, 0f, i * 5f);
-
-            // Add books to each shelf
-            for (int j = 0; j < BOOKS_PER_SHELF; j++) {
-                int idx = i * BOOKS_PER_SHELF + j;
-                float bookY = j * 1.2f + 0.5f;
-                leftBooks[idx] = new Cube(-5.3f, bookY, i * 5f + (rand.nextFloat() - 0.5f) * 0.3f);
-                rightBooks[idx] = new Cube(5.3f, bookY, i * 5f + (rand.nextFloat() - 0.5f) * 0.3f);
-            }
+    // Follow the world origin of the snapshot: an endless rebase moves the chunks already built
+    // along with the bridge (re-uploaded this frame, not regenerated), so the library stays put
+    private void updateLibraryOrigin(float worldOriginZ) {
+        int origin = Math.round(worldOriginZ / LibraryChunk.LENGTH);
+        if (origin == libraryOriginChunk) return;
+        float dz = (libraryOriginChunk - origin) * LibraryChunk.LENGTH;
+        for (LibraryChunk chunk : libraryChunks) {
+            chunk.shiftZ(dz);
         }
+        libraryOriginChunk = origin;
+    }
 
-        // Create floating magical books - CONSTRAINED TO SIDES AND BEHIND FINISH
-        floatingBooks = new MagicalBook[FLOATING_BOOK_COUNT];
+    public GameLogic getLogic() { return logic; }
 
-        // Calculate the finish platform Z position (last platform)
-        float finishZ = (BOOKSHELF_COUNT - 1) * 5f; // Based on PLATFORM_Z_SPACING from GameLogic
+    /** Any thread. Stop stepping the game while the surface is paused. */
+    public void setSimulationPaused(boolean paused) {
+        simulation.setPaused(paused);
+    }
 
-        for (int i = 0; i < FLOATING_BOOK_COUNT; i++) {
-            float x, z;
+    /** Any thread. Told about game state changes on the simulation thread, once applied. */
+    public void setGameStateListener(SimulationThread.StateListener listener) {
+        simulation.setStateListener(listener);
+    }
 
-            // Randomly decide: sides (80% chance) or behind finish (20% chance)
-            if (rand.nextFloat() < 0.8f) {
-                // SIDES: Keep books outside the play area (beyond ±3f)
-                if (rand.nextBoolean()) {
-                    // Left side
-                    x = -4f - rand.nextFloat() * 4f; // Between -4 and -8
-                } else {
-                    // Right side
-                    x = 4f + rand.nextFloat() * 4f; // Between 4 and 8
-                }
-                // Z can be anywhere along the path
-                z = rand.nextFloat() * finishZ - 5f;
-            } else {
-                // BEHIND FINISH: Books past the finish line
-                x = (rand.nextFloat() - 0.5f) * 10f; // Can be anywhere horizontally
-                z = finishZ + 5f + rand.nextFloat() * 15f; // Beyond finish platform
-            }
+    /** Any thread. Turn off when frames stop being vsync-paced (on-demand or capped rendering). */
+    public void setFrameTimingEnabled(boolean enabled) {
+        frameTimingEnabled = enabled;
+    }
 
-            float y = rand.nextFloat() * 6f + 2f;
-            floatingBooks[i] = new MagicalBook(x, y, z, rand);
-        }
+    /** Any thread. Collect frame statistics for the performance overlay (see PerfStats). */
+    public void setPerfOverlayEnabled(boolean enabled) {
+        PerfStats.setEnabled(enabled);
+    }
 
-        // Create candles
-        leftCandles = new Candle[BOOKSHELF_COUNT];
-        rightCandles = new Candle[BOOKSHELF_COUNT];
-        for (int i = 0; i < BOOKSHELF_COUNT; i++) {
-            leftCandles[i] = new Candle(-5f, 6f, i * 5f, rand);
-            rightCandles[i] = new Candle(5f, 6f, i * 5f, rand);
-        }
+    public boolean isPerfOverlayEnabled() {
+        return PerfStats.isEnabled();
     }
 
-    public GameLogic getLogic() { return logic; }
+    /** Current scale and the controller's last decision, for diagnostics. */
+    public ResolutionScaler getResolutionScaler() { return resolutionScaler; }
 
     @Override
     public void onSurfaceCreated(GL10 gl, EGLConfig config) {
         // Warm library atmosphere - amber/candlelit
-        GLES20.glClearColor(0.12f, 0.08f, 0.05f, 1f);
-        GLES20.glEnable(GLES20.GL_DEPTH_TEST);
-        GLES20.glDepthFunc(GLES20.GL_LEQUAL);
-        GLES20.glEnable(GLES20.GL_BLEND);
-        GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+        // onSurfaceCreated also runs after EGL context loss; every GL name we held is gone
+        GlState.reset();
+
+        Gl.get().glClearColor(0.12f, 0.08f, 0.05f, 1f);
+        GlState.setDepthTestEnabled(true);
+        GlState.depthFunc(GLES20.GL_LEQUAL);
+        // Blending is switched per pass by RenderQueue
+        GlState.blendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+
+        ShaderHelper.invalidate();
+        Cube.invalidateBuffers();
+        CubeBatch.invalidateBuffers();
+        RenderQueue.clear();
+        for (LibraryChunk chunk : libraryChunks) {
+            chunk.invalidate();
+        }
+        Player.invalidateBuffers();
+        resolutionScaler.invalidate();
 
         ShaderHelper.init();
+        Cube.createBuffers();
+        CubeBatch.createBuffers();
+        for (LibraryChunk chunk : libraryChunks) {
+            chunk.upload();
+        }
+        Player.createBuffers();
     }
 
     @Override
     public void onSurfaceChanged(GL10 gl, int width, int height) {
-        GLES20.glViewport(0, 0, width, height);
+        Gl.get().glViewport(0, 0, width, height);
+        resolutionScaler.setSurfaceSize(width, height);
         float aspect = (float) width / height;
         Matrix.perspectiveM(projectionMatrix, 0, 50f, aspect, 0.1f, 150f);
     }
 
     @Override
     public void onDrawFrame(GL10 gl) {
-        GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT | GLES20.GL_DEPTH_BUFFER_BIT);
+        // Frame intervals only mean something while rendering continuously
+        long frameTimeNanos = System.nanoTime();
+        if (frameTimingEnabled) {
+            if (qualityGovernor.onFrame(frameTimeNanos)) {
+                applyQualityTier(qualityGovernor.getTier());
+            }
+            resolutionScaler.onFrame(frameTimeNanos);
+        } else {
+            qualityGovernor.resetWindow();
+            resolutionScaler.resetWindow();
+        }
+
+        // Scene goes to the offscreen target when dynamic resolution is on, else the surface
+        resolutionScaler.beginFrame();
+        drawScene();
+        resolutionScaler.endFrame();
+
+        // A jump first drawn this frame: its event is as old as the frame is now (the swap
+        // follows right after onDrawFrame returns)
+        if (frameJumpCount != presentedJumpCount) {
+            presentedJumpCount = frameJumpCount;
+            if (PerfStats.isEnabled()) {
+                PerfStats.recordInputLatency(SystemClock.uptimeMillis() - frameJumpEventTime);
+            }
+        }
 
-        // Update animation time
-        animTime += 0.016f;
+        if (PerfStats.isEnabled()) {
+            PerfStats.recordFrame(frameTimeNanos, System.nanoTime() - frameTimeNanos,
+                    qualityGovernor.getTier());
+        }
+    }
+
+    private void applyQualityTier(int tier) {
+        visibleBookCount = Math.max(1, Math.round(LibraryChunk.BOOKS_PER_CHUNK * QUALITY_BOOK_FRACTION[tier]));
+        for (LibraryChunk chunk : libraryChunks) {
+            chunk.setVisibleBooks(visibleBookCount);
+        }
+        bookLod.setThresholds(QUALITY_BOOK_EFFECT_DISTANCE[tier], QUALITY_BOOK_FAR_DISTANCE[tier],
+                BOOK_LOD_HYSTERESIS);
+        PlatformGlass.setDetail(QUALITY_OUTLINE_LAYERS[tier], QUALITY_SHARD_TRAILS[tier]);
+        resolutionScaler.setEnabled(QUALITY_DYNAMIC_RESOLUTION[tier]);
+    }
+
+    private void drawScene() {
+        // The translucent pass leaves depth writes off, and glClear honours the depth mask
+        GlState.depthMask(true);
+        Gl.get().glClear(GLES20.GL_COLOR_BUFFER_BIT | GLES20.GL_DEPTH_BUFFER_BIT);
 
-        // Update game logic
-        logic.update();
+        // Ambient animation runs on real time, whatever the frame rate
+        long now = System.nanoTime();
+        if (lastAnimNanos != 0) {
+            animTime += Math.min((now - lastAnimNanos) / 1_000_000_000f, MAX_ANIM_STEP);
+        }
+        lastAnimNanos = now;
 
-        Player player = logic.player;
-        if (player == null) return;
+        // Latest simulation step, blended towards the next one for this frame
+        RenderSnapshot snapshot = simulation.acquireSnapshot();
+        if (snapshot == null) return;
+        snapshot.interpolate(now);
+        Player player = snapshot.player;
+        frameJumpCount = snapshot.getJumpCount();
+        frameJumpEventTime = snapshot.getJumpEventTime();
 
         // Calculate shake
-        float shake = logic.getShakeAmount();
+        float shake = snapshot.getShakeAmount();
         if (shake > 0) {
             cachedShakeX = (shakeRandom.nextFloat() - 0.5f) * shake;
             cachedShakeY = (shakeRandom.nextFloat() - 0.5f) * shake;
@@ -245,12 +283,15 @@ public class GameRenderer implements GLSurfaceView.Renderer {
 
         // Camera positioned above and behind
         float camX = cachedShakeX;
-        float camY = player.y + CAMERA_HEIGHT + cachedShakeY;
-        float camZ = player.z - CAMERA_DISTANCE + cachedShakeZ;
+        float camY = player.renderY + CAMERA_HEIGHT + cachedShakeY;
+        float camZ = player.renderZ - CAMERA_DISTANCE + cachedShakeZ;
+        cameraX = camX;
+        cameraY = camY;
+        cameraZ = camZ;
 
         float lookX = cachedShakeX * SHAKE_DAMPING;
-        float lookY = player.y + cachedShakeY * SHAKE_DAMPING;
-        float lookZ = player.z + LOOK_AHEAD_DISTANCE + cachedShakeZ * SHAKE_DAMPING;
+        float lookY = player.renderY + cachedShakeY * SHAKE_DAMPING;
+        float lookZ = player.renderZ + LOOK_AHEAD_DISTANCE + cachedShakeZ * SHAKE_DAMPING;
 
         Matrix.setLookAtM(viewMatrix, 0,
                 camX, camY, camZ,
@@ -258,119 +299,110 @@ public class GameRenderer implements GLSurfaceView.Renderer {
                 0f, 1f, 0f);
 
         Matrix.multiplyMM(vpMatrix, 0, projectionMatrix, 0, viewMatrix, 0);
+        frustum.update(vpMatrix);
+        RenderStats.beginFrame();
+
+        // Move the library along with the camera; a chunk regenerated here uploads now
+        updateLibraryOrigin(snapshot.getWorldOriginZ());
+        updateLibraryChunks(camZ);
+        for (LibraryChunk chunk : libraryChunks) {
+            chunk.upload();
+        }
 
-        // Draw library environment
-        drawBookshelves(vpMatrix);
-        drawCandles(vpMatrix);
-        drawFloatingBooks(vpMatrix);
-
-        // Draw game objects
-        logic.draw(vpMatrix);
-    }
-
-    private void drawBookshelves(float[] vpMatrix) {
-        // Dark wood color for shelves
-        float[] woodColor = {0.25f, 0.15f, 0.08f, 0.95f};
-        float[] bookColors = {
-                0.6f, 0.2f, 0.15f, 0.9f,  // Red leather
-                0.15f, 0.3f, 0.15f, 0.9f,  // Green leather
-                0.4f, 0.3f, 0.2f, 0.9f,   // Brown leather
-                0.15f, 0.2f, 0.5f, 0.9f,  // Blue leather
-                0.5f, 0.4f, 0.2f, 0.9f    // Tan leather
-        };
-
-        for (int i = 0; i < BOOKSHELF_COUNT; i++) {
-            // Left bookshelf structure
-            Cube leftShelf = leftBookshelves[i];
-            leftShelf.size = 1.5f;
-            leftShelf.modelRotationX = 0;
-
-            // Vertical supports
-            for (int h = 0; h < 6; h++) {
-                Cube support = new Cube(leftShelf.x, h * 1.2f, leftShelf.z);
-                support.size = 1.5f;
-                support.modelRotationX = 0;
-                support.draw(vpMatrix, woodColor);
+        // Queue dynamic library objects and game objects
+        boolean gpuBooks = libraryChunks[0].areBooksReady();
+        for (int n = firstLibraryChunk; n < firstLibraryChunk + LIBRARY_CHUNK_COUNT; n++) {
+            LibraryChunk chunk = libraryChunks[n % LIBRARY_CHUNK_COUNT];
+            if (chunk.getIndex() != n) continue;
+            drawCandles(vpMatrix, chunk);
+            if (!gpuBooks) {
+                drawFloatingBooks(vpMatrix, chunk);
             }
-
-            // Right bookshelf structure
-            Cube rightShelf = rightBookshelves[i];
-            rightShelf.size = 1.5f;
-            rightShelf.modelRotationX = 0;
-
-            for (int h = 0; h < 6; h++) {
-                Cube support = new Cube(rightShelf.x, h * 1.2f, rightShelf.z);
-                support.size = 1.5f;
-                support.modelRotationX = 0;
-                support.draw(vpMatrix, woodColor);
+        }
+        snapshot.draw(vpMatrix, frustum);
+
+        // Opaque pass front-to-back, then the baked shelves, books and candle sticks (one
+        // call per chunk, nearest first, mostly behind the gameplay objects), then
+        // translucent back-to-front
+        RenderQueue.flushOpaque();
+        for (int n = firstLibraryChunk; n < firstLibraryChunk + LIBRARY_CHUNK_COUNT; n++) {
+            LibraryChunk chunk = libraryChunks[n % LIBRARY_CHUNK_COUNT];
+            if (chunk.getIndex() != n) continue;
+            RenderStats.objectsCulled += chunk.drawShelves(vpMatrix, frustum);
+            if (gpuBooks && chunk.isVisible(frustum)) {
+                chunk.drawBookPieces(vpMatrix, animTime, cameraX, cameraY, cameraZ, bookLod);
             }
-
-            // Draw books on shelves
-            for (int j = 0; j < BOOKS_PER_SHELF; j++) {
-                int idx = i * BOOKS_PER_SHELF + j;
-
-                // Left books
-                Cube leftBook = leftBooks[idx];
-                float[] bookColor = {
-                        bookColors[j * 4],
-                        bookColors[j * 4 + 1],
-                        bookColors[j * 4 + 2],
-                        bookColors[j * 4 + 3]
-                };
-                leftBook.size = 0.25f;
-                leftBook.modelRotationX = 0;
-                leftBook.draw(vpMatrix, bookColor);
-
-                // Right books
-                Cube rightBook = rightBooks[idx];
-                rightBook.size = 0.25f;
-                rightBook.modelRotationX = 0;
-                rightBook.draw(vpMatrix, bookColor);
+        }
+        RenderQueue.flushTranslucent();
+
+        // Book effects are small glows at the scene edges; drawn last rather than depth-sorted
+        if (gpuBooks) {
+            RenderQueue.beginTranslucentPass();
+            for (int n = firstLibraryChunk; n < firstLibraryChunk + LIBRARY_CHUNK_COUNT; n++) {
+                LibraryChunk chunk = libraryChunks[n % LIBRARY_CHUNK_COUNT];
+                if (chunk.getIndex() == n && chunk.isVisible(frustum)) {
+                    chunk.drawBookEffects(vpMatrix, animTime);
+                }
             }
         }
     }
 
-    private void drawCandles(float[] vpMatrix) {
-        for (int i = 0; i < BOOKSHELF_COUNT; i++) {
+    private void drawCandles(float[] vpMatrix, LibraryChunk chunk) {
+        for (int i = 0; i < LibraryChunk.SHELVES_PER_CHUNK; i++) {
             // Left candles
-            Candle leftCandle = leftCandles[i];
-            float leftFlicker = (float) Math.sin(animTime * 3f + leftCandle.flickerOffset) * 0.05f + 0.95f;
-
-            // Candle stick
-            float[] candleColor = {0.9f, 0.9f, 0.8f, 0.9f};
-            Cube leftStick = new Cube(leftCandle.x, leftCandle.y, leftCandle.z);
-            leftStick.size = 0.15f;
-            leftStick.modelRotationX = 0;
-            leftStick.draw(vpMatrix, candleColor);
-
-            // Flame glow
-            float[] flameColor = {1f, 0.7f, 0.2f, 0.7f * leftFlicker};
-            Cube leftFlame = new Cube(leftCandle.x, leftCandle.y + 0.3f, leftCandle.z);
-            leftFlame.size = 0.2f * leftFlicker;
-            leftFlame.modelRotationX = 0;
-            leftFlame.draw(vpMatrix, flameColor);
+            LibraryChunk.Candle leftCandle = chunk.leftCandles[i];
+            if (isFlameVisible(leftCandle)) {
+                float leftFlicker = (float) Math.sin(animTime * 3f + leftCandle.flickerOffset) * 0.05f + 0.95f;
+
+                // Flame glow
+                drawFlame(vpMatrix, leftCandle, leftFlicker);
+            }
 
             // Right candles
-            Candle rightCandle = rightCandles[i];
-            float rightFlicker = (float) Math.sin(animTime * 3.2f + rightCandle.flickerOffset) * 0.05f + 0.95f;
-
-            Cube rightStick = new Cube(rightCandle.x, rightCandle.y, rightCandle.z);
-            rightStick.size = 0.15f;
-            rightStick.modelRotationX = 0;
-            rightStick.draw(vpMatrix, candleColor);
-
-            float[] rightFlameColor = {1f, 0.7f, 0.2f, 0.7f * rightFlicker};
-            Cube rightFlame = new Cube(rightCandle.x, rightCandle.y + 0.3f, rightCandle.z);
-            rightFlame.size = 0.2f * rightFlicker;
-            rightFlame.modelRotationX = 0;
-            rightFlame.draw(vpMatrix, rightFlameColor);
+            LibraryChunk.Candle rightCandle = chunk.rightCandles[i];
+            if (isFlameVisible(rightCandle)) {
+                float rightFlicker = (float) Math.sin(animTime * 3.2f + rightCandle.flickerOffset) * 0.05f + 0.95f;
+
+                drawFlame(vpMatrix, rightCandle, rightFlicker);
+            }
+        }
+    }
+
+    private boolean isFlameVisible(LibraryChunk.Candle candle) {
+        if (frustum.isSphereVisible(candle.x, candle.y + 0.3f, candle.z,
+                LibraryChunk.Candle.FLAME_BOUND_RADIUS)) {
+            return true;
         }
+        RenderStats.objectsCulled++;
+        return false;
     }
 
-    private void drawFloatingBooks(float[] vpMatrix) {
-        Cube cube = new Cube(0, 0, 0);
+    private void drawFlame(float[] vpMatrix, LibraryChunk.Candle candle, float flicker) {
+        flameColor[3] = 0.7f * flicker;
+        scratchCube.x = candle.x;
+        scratchCube.y = candle.y + 0.3f;
+        scratchCube.z = candle.z;
+        scratchCube.size = 0.2f * flicker;
+        scratchCube.modelRotationX = 0;
+        scratchCube.draw(vpMatrix, flameColor);
+    }
+
+    private void drawFloatingBooks(float[] vpMatrix, LibraryChunk chunk) {
+        Cube cube = scratchCube;
+
+        for (int i = 0; i < visibleBookCount; i++) {
+            LibraryChunk.MagicalBook book = chunk.books[i];
+            if (!frustum.isSphereVisible(book.x, book.y, book.z, book.boundRadius)) {
+                RenderStats.objectsCulled++;
+                continue;
+            }
+
+            // Pick detail from the distance to the book's orbit centre
+            float dx = book.x - cameraX;
+            float dy = book.y - cameraY;
+            float dz = book.z - cameraZ;
+            book.lodLevel = bookLod.select(book.lodLevel, (float) Math.sqrt(dx * dx + dy * dy + dz * dz));
 
-        for (MagicalBook book : floatingBooks) {
             // Calculate animated position
             float angle = animTime * book.orbitSpeed + book.bobOffset;
             float bookX = book.x + (float) Math.cos(angle) * book.orbitRadius * 0.5f;
@@ -392,12 +424,19 @@ public class GameRenderer implements GLSurfaceView.Renderer {
             float halfSpine = spineWidth * 0.5f;
 
             // World transform
-            float[] worldTransform = new float[16];
             Matrix.setIdentityM(worldTransform, 0);
             Matrix.translateM(worldTransform, 0, bookX, bookY, bookZ);
             Matrix.rotateM(worldTransform, 0, currentRotation, 0f, 1f, 0f);
             Matrix.rotateM(worldTransform, 0, book.tiltAngle, 1f, 0f, 0f);
 
+            if (book.lodLevel == BookLod.LEVEL_FAR) {
+                // One box covering the open book, in the cover colour
+                Matrix.scaleM(pieceModel, 0, worldTransform, 0,
+                        bookWidth * 0.5f, bookHeight, bookWidth * 0.9f);
+                cube.drawWithModel(vpMatrix, pieceModel, book.coverColor);
+                continue;
+            }
+
             float openAngle = -(40f + pageTurnAngle);
             float pageCenterFromSpine = pageWidth * 0.5f;
             float coverOffset = (pageThickness + coverThickness) * 0.5f;
@@ -431,28 +470,30 @@ public class GameRenderer implements GLSurfaceView.Renderer {
                             coverThickness, bookHeight, pageWidth * 1.25f),
                     book.coverColor);
 
-            // Draw magical effects
+            // Draw magical effects (near books only)
+            if (book.lodLevel != BookLod.LEVEL_NEAR) continue;
             drawBookEffect(cube, vpMatrix, worldTransform, book, bookHeight, bookSize,
                     halfSpine, coverThickness, openAngle);
         }
     }
 
-    private float[] createBookPieceTransform(float[] worldTransform, float hingeZ, float rotAngle,
-                                             float outwardZ, float outwardX, float thicknessX,
-                                             float height, float widthZ) {
-        float[] local = new float[16];
+    // Returns the shared pieceModel scratch matrix; consume it before the next call.
+    // Package-private for the book-transform benchmark
+    float[] createBookPieceTransform(float[] worldTransform, float hingeZ, float rotAngle,
+                                     float outwardZ, float outwardX, float thicknessX,
+                                     float height, float widthZ) {
+        float[] local = pieceLocal;
         Matrix.setIdentityM(local, 0);
         Matrix.translateM(local, 0, 0f, 0f, hingeZ);
         Matrix.rotateM(local, 0, rotAngle, 0f, 1f, 0f);
         Matrix.translateM(local, 0, outwardX, 0f, outwardZ);
         Matrix.scaleM(local, 0, thicknessX, height, widthZ);
-        float[] model = new float[16];
-        Matrix.multiplyMM(model, 0, worldTransform, 0, local, 0);
-        return model;
+        Matrix.multiplyMM(pieceModel, 0, worldTransform, 0, local, 0);
+        return pieceModel;
     }
 
     private void drawBookEffect(Cube cube, float[] vpMatrix, float[] worldTransform,
-                                MagicalBook book, float bookHeight, float bookSize,
+                                LibraryChunk.MagicalBook book, float bookHeight, float bookSize,
                                 float halfSpine, float coverThickness, float openAngle) {
         float glowPulse = (float) Math.sin(animTime * 3f + book.bobOffset) * 0.3f + 0.7f;
 
@@ -473,67 +514,83 @@ public class GameRenderer implements GLSurfaceView.Renderer {
     private void drawRunes(Cube cube, float[] vpMatrix, float[] worldTransform,
                            float bookHeight, float bookSize, float halfSpine,
                            float coverThickness, float openAngle, float glowPulse) {
-        float[] runeColor = {0.9f, 0.75f, 0.2f, 0.7f * glowPulse};
-        float[] positions = {-halfSpine - coverThickness * 0.5f, halfSpine + coverThickness * 0.5f};
-        float[] rotations = {-(openAngle + 5f), openAngle + 5f};
+        float[] runeColor = effectColor;
+        runeColor[0] = 0.9f;
+        runeColor[1] = 0.75f;
+        runeColor[2] = 0.2f;
+        runeColor[3] = 0.7f * glowPulse;
 
         for (int side = 0; side < 2; side++) {
+            float position = side == 0 ? -halfSpine - coverThickness * 0.5f : halfSpine + coverThickness * 0.5f;
+            float rotation = side == 0 ? -(openAngle + 5f) : openAngle + 5f;
             for (int i = 0; i < 3; i++) {
                 float runeY = (i - 1) * bookHeight * 0.35f;
-                float[] local = new float[16];
+                float[] local = pieceLocal;
                 Matrix.setIdentityM(local, 0);
-                Matrix.translateM(local, 0, 0f, runeY, positions[side]);
-                Matrix.rotateM(local, 0, rotations[side], 0f, 1f, 0f);
+                Matrix.translateM(local, 0, 0f, runeY, position);
+                Matrix.rotateM(local, 0, rotation, 0f, 1f, 0f);
                 Matrix.scaleM(local, 0, coverThickness * 0.3f, bookSize * 0.15f, bookSize * 0.15f);
-                float[] model = new float[16];
-                Matrix.multiplyMM(model, 0, worldTransform, 0, local, 0);
-                cube.drawWithModel(vpMatrix, model, runeColor);
+                Matrix.multiplyMM(pieceModel, 0, worldTransform, 0, local, 0);
+                cube.drawWithModel(vpMatrix, pieceModel, runeColor);
             }
         }
     }
 
     private void drawOrbitingParticles(Cube cube, float[] vpMatrix, float[] worldTransform,
                                        float bookSize, float glowPulse) {
-        float[] color = {0.4f, 0.6f, 1f, 0.8f * glowPulse};
+        float[] color = effectColor;
+        color[0] = 0.4f;
+        color[1] = 0.6f;
+        color[2] = 1f;
+        color[3] = 0.8f * glowPulse;
         for (int i = 0; i < 4; i++) {
             float angle = animTime * 2f + i * (6.28f / 4);
             float px = (float) Math.cos(angle) * bookSize * 0.8f;
             float pz = (float) Math.sin(angle) * bookSize * 0.8f;
 
-            float[] local = new float[16];
+            float[] local = pieceLocal;
             Matrix.setIdentityM(local, 0);
             Matrix.translateM(local, 0, px, 0f, pz);
             Matrix.scaleM(local, 0, bookSize * 0.08f, bookSize * 0.08f, bookSize * 0.08f);
-            float[] model = new float[16];
-            Matrix.multiplyMM(model, 0, worldTransform, 0, local, 0);
-            cube.drawWithModel(vpMatrix, model, color);
+            Matrix.multiplyMM(pieceModel, 0, worldTransform, 0, local, 0);
+            cube.drawWithModel(vpMatrix, pieceModel, color);
         }
     }
 
     private void drawHelixSparkles(Cube cube, float[] vpMatrix, float[] worldTransform,
                                    float bookSize, float bookHeight, float glowPulse) {
-        float[] sparkleColor = {1f, 0.8f, 0.3f, 0.9f * glowPulse};
+        float[] sparkleColor = effectColor;
+        sparkleColor[0] = 1f;
+        sparkleColor[1] = 0.8f;
+        sparkleColor[2] = 0.3f;
+        sparkleColor[3] = 0.9f * glowPulse;
         for (int i = 0; i < 6; i++) {
             float angle = animTime * 2.5f + i * (3.14159f / 3f);
             float px = (float) Math.cos(angle) * bookSize * 0.7f;
             float py = (float) Math.sin(animTime * 1.5f + i) * bookHeight * 0.3f;
             float pz = (float) Math.sin(angle) * bookSize * 0.7f;
 
-            float[] local = new float[16];
+            float[] local = pieceLocal;
             Matrix.setIdentityM(local, 0);
             Matrix.translateM(local, 0, px, py, pz);
             Matrix.rotateM(local, 0, animTime * 100f + i * 60f, 0f, 1f, 0f);
             Matrix.scaleM(local, 0, bookSize * 0.05f, bookSize * 0.05f, bookSize * 0.05f);
-            float[] model = new float[16];
-            Matrix.multiplyMM(model, 0, worldTransform, 0, local, 0);
-            cube.drawWithModel(vpMatrix, model, sparkleColor);
+            Matrix.multiplyMM(pieceModel, 0, worldTransform, 0, local, 0);
+            cube.drawWithModel(vpMatrix, pieceModel, sparkleColor);
         }
     }
 
+    /**
+     * UI thread, from onDestroy: stop the simulation. GL objects are not deleted here (there
+     * is no context on this thread); they go with the EGL context when the surface is torn
+     * down, and the next onSurfaceCreated forgets the stale names.
+     */
     public void release() {
+        if (simulation != null) {
+            simulation.shutdown();
+        }
         if (logic != null) {
             logic.cleanup();
         }
-        ShaderHelper.release();
     }
 }
\ No newline at end of file
@@ -2,21 +2,53 @@ package com.example.testapp;
 
 import android.content.Context;
 import android.opengl.GLSurfaceView;
+import android.os.Build;
 import android.util.AttributeSet;
+import android.util.Log;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
+import android.view.Surface;
+import android.view.SurfaceHolder;
+
+import javax.microedition.khronos.egl.EGL10;
+import javax.microedition.khronos.egl.EGLConfig;
+import javax.microedition.khronos.egl.EGLContext;
+import javax.microedition.khronos.egl.EGLDisplay;
 
 public class GameSurfaceView extends GLSurfaceView {
 
+    private static final String TAG = "GameSurfaceView";
+
     private final GameRenderer renderer;
 
+    // How the render loop follows the game state (see updateRenderPolicy)
+    private static final int POLICY_CONTINUOUS = 0; // gameplay: every vsync
+    private static final int POLICY_CAPPED = 1;     // main menu: ambient animation behind the overlay
+    private static final int POLICY_ON_DEMAND = 2;  // paused / won: the scene is frozen
+    private static final long CAPPED_FRAME_INTERVAL_MS = 50; // 20 fps
+    private static final float IDLE_DISPLAY_RATE = 30f;
+
+    private int renderPolicy = POLICY_CONTINUOUS;
+
+    private final Runnable cappedFrameTick = new Runnable() {
+        @Override
+        public void run() {
+            if (renderPolicy == POLICY_CAPPED) {
+                requestRender();
+                postDelayed(this, CAPPED_FRAME_INTERVAL_MS);
+            }
+        }
+    };
+
     public GameSurfaceView(Context context) {
         this(context, null);
     }
 
     public GameSurfaceView(Context context, AttributeSet attrs) {
         super(context, attrs);
+        // Still picks ES 2-renderable configs; the context itself comes from the factory
         setEGLContextClientVersion(2);
+        setEGLContextFactory(new Es3ContextFactory());
         renderer = new GameRenderer(context);
         setRenderer(renderer);
         setPreserveEGLContextOnPause(true);
@@ -29,28 +61,99 @@ public class GameSurfaceView extends GLSurfaceView {
         return renderer;
     }
 
+    /**
+     * Match the render loop to the game state. UI thread; cheap to call on every state poll.
+     * Outside gameplay the scene is under a menu overlay, so it renders at a capped rate
+     * (menu) or only when asked (paused, won), and asks the display for a lower refresh rate.
+     */
+    public void updateRenderPolicy(GameLogic.GameState state) {
+        int policy;
+        switch (state) {
+            case MENU:
+                policy = POLICY_CAPPED;
+                break;
+            case PAUSED:
+            case WON:
+                policy = POLICY_ON_DEMAND;
+                break;
+            default:
+                policy = POLICY_CONTINUOUS;
+                break;
+        }
+        if (policy == renderPolicy) return;
+        renderPolicy = policy;
+
+        removeCallbacks(cappedFrameTick);
+        renderer.setFrameTimingEnabled(policy == POLICY_CONTINUOUS);
+        if (policy == POLICY_CONTINUOUS) {
+            setRenderMode(RENDERMODE_CONTINUOUSLY);
+        } else {
+            setRenderMode(RENDERMODE_WHEN_DIRTY);
+            requestRender(); // show the new state once
+            if (policy == POLICY_CAPPED) {
+                postDelayed(cappedFrameTick, CAPPED_FRAME_INTERVAL_MS);
+            }
+        }
+        applyFrameRateHint();
+    }
+
+    // Surface.setFrameRate (API 30+): 0 clears our preference for gameplay
+    private void applyFrameRateHint() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.R) return;
+        Surface surface = getHolder().getSurface();
+        if (surface == null || !surface.isValid()) return;
+        float rate = renderPolicy == POLICY_CONTINUOUS ? 0f : IDLE_DISPLAY_RATE;
+        surface.setFrameRate(rate, Surface.FRAME_RATE_COMPATIBILITY_DEFAULT);
+    }
+
+    @Override
+    public void surfaceCreated(SurfaceHolder holder) {
+        super.surfaceCreated(holder);
+        applyFrameRateHint();
+    }
+
+    @Override
+    public void onPause() {
+        super.onPause();
+        removeCallbacks(cappedFrameTick);
+        renderer.setSimulationPaused(true);
+    }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+        renderer.setSimulationPaused(false);
+        if (renderPolicy == POLICY_CAPPED) {
+            postDelayed(cappedFrameTick, CAPPED_FRAME_INTERVAL_MS);
+        }
+    }
+
     @Override
     public boolean onKeyDown(int keyCode, KeyEvent event) {
         try {
             GameLogic logic = renderer.getLogic();
             if (logic == null) return true;
 
-            if (keyCode == KeyEvent.KEYCODE_ESCAPE) {
-                return true;
+            // Jump keys are handled here only; ESC (pause), F3 (overlay) and F5 (trace) go on to MainActivity
+            if (keyCode == KeyEvent.KEYCODE_ESCAPE || keyCode == KeyEvent.KEYCODE_F3
+                    || keyCode == KeyEvent.KEYCODE_F5) {
+                return false;
             }
 
             if (!logic.isPlaying()) {
                 return true;
             }
 
+            // Screen-relative, like touch: the camera looks down +z, so world +x ("right"
+            // platform) is on the left of the screen
             switch (keyCode) {
                 case KeyEvent.KEYCODE_DPAD_LEFT:
                 case KeyEvent.KEYCODE_A:
-                    logic.jumpRight();
+                    logic.jumpRight(event.getEventTime());
                     return true;
                 case KeyEvent.KEYCODE_DPAD_RIGHT:
                 case KeyEvent.KEYCODE_D:
-                    logic.jumpLeft();
+                    logic.jumpLeft(event.getEventTime());
                     return true;
                 default:
                     return super.onKeyDown(keyCode, event);
@@ -74,19 +177,15 @@ public class GameSurfaceView extends GLSurfaceView {
                 return true;
             }
 
-            final float x = event.getX();
-            final float w = getWidth();
+            float x = event.getX();
+            float w = getWidth();
 
-            // Queue to GL thread to ensure thread safety with OpenGL state
-            queueEvent(() -> {
-                if (logic.isPlaying()) {
-                    if (x < w / 2f) {
-                        logic.jumpRight();
-                    } else {
-                        logic.jumpLeft();
-                    }
-                }
-            });
+            // Queued with the event time; the simulation thread applies it
+            if (x < w / 2f) {
+                logic.jumpRight(event.getEventTime());
+            } else {
+                logic.jumpLeft(event.getEventTime());
+            }
 
             return true;
 
@@ -95,4 +194,40 @@ public class GameSurfaceView extends GLSurfaceView {
             return true;
         }
     }
-}
\ No newline at end of file
+
+    // ------------------------
+    // EGL context
+    // ------------------------
+
+    /**
+     * Asks for an ES 3 context and falls back to ES 2 where the driver refuses one. ES 3 is
+     * only a request: ShaderHelper reads GL_VERSION from the context it gets and gates the
+     * ES 3 paths (instancing, program binaries) on that.
+     */
+    private static final class Es3ContextFactory implements EGLContextFactory {
+        private static final int EGL_CONTEXT_CLIENT_VERSION = 0x3098;
+
+        @Override
+        public EGLContext createContext(EGL10 egl, EGLDisplay display, EGLConfig config) {
+            EGLContext context = create(egl, display, config, 3);
+            if (context == null || context == EGL10.EGL_NO_CONTEXT) {
+                Log.i(TAG, "No ES 3 context (0x" + Integer.toHexString(egl.eglGetError())
+                        + "), falling back to ES 2");
+                context = create(egl, display, config, 2);
+            }
+            return context;
+        }
+
+        private static EGLContext create(EGL10 egl, EGLDisplay display, EGLConfig config, int version) {
+            int[] attribs = {EGL_CONTEXT_CLIENT_VERSION, version, EGL10.EGL_NONE};
+            return egl.eglCreateContext(display, config, EGL10.EGL_NO_CONTEXT, attribs);
+        }
+
+        @Override
+        public void destroyContext(EGL10 egl, EGLDisplay display, EGLContext context) {
+            if (!egl.eglDestroyContext(display, context)) {
+                Log.e(TAG, "eglDestroyContext failed: 0x" + Integer.toHexString(egl.eglGetError()));
+            }
+        }
+    }
+}
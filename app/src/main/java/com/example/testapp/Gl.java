@@ -0,0 +1,27 @@
+package com.example.testapp;
+
+/**
+ * Holder for the GLApi every draw call goes through: the device driver by default, or a
+ * RecordingGL when counting calls without a GPU. Swap it before the first GL call of a
+ * context (or a test), never mid-frame.
+ */
+public final class Gl {
+
+    private static volatile GLApi api = new AndroidGL();
+
+    private Gl() {
+    }
+
+    public static GLApi get() {
+        return api;
+    }
+
+    public static void set(GLApi newApi) {
+        api = newApi;
+    }
+
+    /** Back to the device driver. */
+    public static void reset() {
+        api = new AndroidGL();
+    }
+}
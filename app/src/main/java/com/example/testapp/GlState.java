@@ -0,0 +1,244 @@
+package com.example.testapp;
+
+import android.opengl.GLES20;
+
+/**
+ * Shadow copy of the GL state used by the renderer. Every call goes through here and is
+ * dropped when it would not change anything, so consecutive draws with the same program,
+ * buffers and attribute layout cost no driver validation.
+ *
+ * Only valid while all state changes go through this class. Call {@link #reset()} whenever
+ * a new EGL context is created (onSurfaceCreated); it assumes the GL default state.
+ *
+ * GL thread only.
+ */
+public class GlState {
+
+    private static final int MAX_TRACKED_ATTRIBS = 8; // ES 2.0 guarantees at least 8
+
+    private static int currentProgram;
+    private static int arrayBuffer;
+    private static int elementArrayBuffer;
+    private static int enabledAttribMask;
+
+    // Last pointer per attribute: source buffer, size, stride, byte offset, divisor
+    private static final int[] pointerBuffer = new int[MAX_TRACKED_ATTRIBS];
+    private static final int[] pointerSize = new int[MAX_TRACKED_ATTRIBS];
+    private static final int[] pointerStride = new int[MAX_TRACKED_ATTRIBS];
+    private static final int[] pointerOffset = new int[MAX_TRACKED_ATTRIBS];
+    private static final int[] pointerDivisor = new int[MAX_TRACKED_ATTRIBS];
+
+    private static boolean blendEnabled;
+    private static int blendSrc;
+    private static int blendDst;
+    private static boolean depthTestEnabled;
+    private static int depthFunc;
+    private static boolean depthMask;
+
+    // Counters, cumulative until resetCounters()
+    private static long issuedCalls = 0;
+    private static long skippedCalls = 0;
+
+    static {
+        reset();
+    }
+
+    /** Forget everything and assume the defaults of a freshly created context. */
+    public static void reset() {
+        currentProgram = 0;
+        arrayBuffer = 0;
+        elementArrayBuffer = 0;
+        enabledAttribMask = 0;
+        for (int i = 0; i < MAX_TRACKED_ATTRIBS; i++) {
+            pointerBuffer[i] = -1; // never specified
+            pointerDivisor[i] = 0;
+        }
+        blendEnabled = false;
+        blendSrc = GLES20.GL_ONE;
+        blendDst = GLES20.GL_ZERO;
+        depthTestEnabled = false;
+        depthFunc = GLES20.GL_LESS;
+        depthMask = true;
+    }
+
+    // ------------------------
+    // Program + buffers
+    // ------------------------
+    public static void useProgram(int program) {
+        if (program == currentProgram) {
+            skippedCalls++;
+            return;
+        }
+        Gl.get().glUseProgram(program);
+        currentProgram = program;
+        issuedCalls++;
+    }
+
+    public static void bindArrayBuffer(int buffer) {
+        if (buffer == arrayBuffer) {
+            skippedCalls++;
+            return;
+        }
+        Gl.get().glBindBuffer(GLES20.GL_ARRAY_BUFFER, buffer);
+        arrayBuffer = buffer;
+        issuedCalls++;
+    }
+
+    public static void bindElementArrayBuffer(int buffer) {
+        if (buffer == elementArrayBuffer) {
+            skippedCalls++;
+            return;
+        }
+        Gl.get().glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, buffer);
+        elementArrayBuffer = buffer;
+        issuedCalls++;
+    }
+
+    /** Call after glDeleteBuffers so a recycled name is not mistaken for the old binding. */
+    public static void onBufferDeleted(int buffer) {
+        if (arrayBuffer == buffer) arrayBuffer = 0;
+        if (elementArrayBuffer == buffer) elementArrayBuffer = 0;
+        for (int i = 0; i < MAX_TRACKED_ATTRIBS; i++) {
+            if (pointerBuffer[i] == buffer) pointerBuffer[i] = -1;
+        }
+    }
+
+    public static void onProgramDeleted(int program) {
+        if (currentProgram == program) currentProgram = 0;
+    }
+
+    // ------------------------
+    // Vertex attributes
+    // ------------------------
+
+    /**
+     * Enable exactly the attribute locations set in mask (bit n = location n) and disable
+     * the others that are currently on.
+     */
+    public static void setEnabledAttributes(int mask) {
+        int changed = mask ^ enabledAttribMask;
+        for (int loc = 0; loc < MAX_TRACKED_ATTRIBS; loc++) {
+            int bit = 1 << loc;
+            if ((mask & bit) == 0 && (enabledAttribMask & bit) == 0) continue;
+            if ((changed & bit) == 0) {
+                skippedCalls++;
+                continue;
+            }
+            if ((mask & bit) != 0) {
+                Gl.get().glEnableVertexAttribArray(loc);
+            } else {
+                Gl.get().glDisableVertexAttribArray(loc);
+            }
+            issuedCalls++;
+        }
+        enabledAttribMask = mask;
+    }
+
+    /** Mask bit for an attribute location; 0 for locations the linker dropped (-1). */
+    public static int attribBit(int loc) {
+        return loc < 0 ? 0 : 1 << loc;
+    }
+
+    /** Float attribute read from the currently bound array buffer at a byte offset. */
+    public static void vertexAttribPointer(int loc, int size, int stride, int offset) {
+        vertexAttribPointer(loc, size, stride, offset, 0);
+    }
+
+    /** As above, with an instancing divisor (ES 3.0 only when non-zero). */
+    public static void vertexAttribPointer(int loc, int size, int stride, int offset, int divisor) {
+        if (loc < 0) return;
+
+        if (pointerBuffer[loc] == arrayBuffer && pointerSize[loc] == size
+                && pointerStride[loc] == stride && pointerOffset[loc] == offset) {
+            skippedCalls++;
+        } else {
+            Gl.get().glVertexAttribPointer(loc, size, GLES20.GL_FLOAT, false, stride, offset);
+            pointerBuffer[loc] = arrayBuffer;
+            pointerSize[loc] = size;
+            pointerStride[loc] = stride;
+            pointerOffset[loc] = offset;
+            issuedCalls++;
+        }
+
+        if (pointerDivisor[loc] == divisor) {
+            skippedCalls++;
+        } else {
+            Gl.get().glVertexAttribDivisor(loc, divisor);
+            pointerDivisor[loc] = divisor;
+            issuedCalls++;
+        }
+    }
+
+    // ------------------------
+    // Fixed-function state
+    // ------------------------
+    public static void setBlendEnabled(boolean enabled) {
+        if (enabled == blendEnabled) {
+            skippedCalls++;
+            return;
+        }
+        if (enabled) {
+            Gl.get().glEnable(GLES20.GL_BLEND);
+        } else {
+            Gl.get().glDisable(GLES20.GL_BLEND);
+        }
+        blendEnabled = enabled;
+        issuedCalls++;
+    }
+
+    public static void blendFunc(int src, int dst) {
+        if (src == blendSrc && dst == blendDst) {
+            skippedCalls++;
+            return;
+        }
+        Gl.get().glBlendFunc(src, dst);
+        blendSrc = src;
+        blendDst = dst;
+        issuedCalls++;
+    }
+
+    public static void setDepthTestEnabled(boolean enabled) {
+        if (enabled == depthTestEnabled) {
+            skippedCalls++;
+            return;
+        }
+        if (enabled) {
+            Gl.get().glEnable(GLES20.GL_DEPTH_TEST);
+        } else {
+            Gl.get().glDisable(GLES20.GL_DEPTH_TEST);
+        }
+        depthTestEnabled = enabled;
+        issuedCalls++;
+    }
+
+    public static void depthFunc(int func) {
+        if (func == depthFunc) {
+            skippedCalls++;
+            return;
+        }
+        Gl.get().glDepthFunc(func);
+        depthFunc = func;
+        issuedCalls++;
+    }
+
+    public static void depthMask(boolean write) {
+        if (write == depthMask) {
+            skippedCalls++;
+            return;
+        }
+        Gl.get().glDepthMask(write);
+        depthMask = write;
+        issuedCalls++;
+    }
+
+    // ------------------------
+    // Counters
+    // ------------------------
+    public static long getIssuedCalls() { return issuedCalls; }
+    public static long getSkippedCalls() { return skippedCalls; }
+
+    public static void resetCounters() {
+        issuedCalls = 0;
+        skippedCalls = 0;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.testapp;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free single-producer / single-consumer ring of player input, each entry carrying the
+ * timestamp of the MotionEvent or KeyEvent that produced it (SystemClock.uptimeMillis base).
+ *
+ * The UI thread offers, the simulation thread drains. Entries are two parallel primitive
+ * arrays, so neither side allocates. When the consumer falls a whole ring behind, new input
+ * is dropped rather than overwriting input not yet seen.
+ */
+public class InputRing {
+
+    public static final int JUMP_LEFT = 1;
+    public static final int JUMP_RIGHT = 2;
+
+    public interface Handler {
+        void onInput(int action, long eventTimeMs);
+    }
+
+    private final int[] actions;
+    private final long[] eventTimes;
+    private final int mask;
+
+    // Next slot to write (producer) and to read (consumer); lazySet publishes the slot contents
+    private final AtomicLong writeIndex = new AtomicLong();
+    private final AtomicLong readIndex = new AtomicLong();
+
+    private long dropped = 0; // producer only
+
+    /** capacity is rounded up to a power of two. */
+    public InputRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        actions = new int[size];
+        eventTimes = new long[size];
+        mask = size - 1;
+    }
+
+    /** Producer thread. Returns false (and drops the input) when the ring is full. */
+    public boolean offer(int action, long eventTimeMs) {
+        long w = writeIndex.get();
+        if (w - readIndex.get() > mask) {
+            dropped++;
+            return false;
+        }
+        int slot = (int) (w & mask);
+        actions[slot] = action;
+        eventTimes[slot] = eventTimeMs;
+        writeIndex.lazySet(w + 1);
+        return true;
+    }
+
+    /** Consumer thread. Hands every pending entry to handler, oldest first; returns how many. */
+    public int drainTo(Handler handler) {
+        long r = readIndex.get();
+        long w = writeIndex.get();
+        int count = 0;
+        while (r < w) {
+            int slot = (int) (r & mask);
+            int action = actions[slot];
+            long eventTime = eventTimes[slot];
+            readIndex.lazySet(++r);
+            handler.onInput(action, eventTime);
+            count++;
+        }
+        return count;
+    }
+
+    /** Consumer thread. Forget pending input (e.g. when leaving play). */
+    public void clear() {
+        readIndex.lazySet(writeIndex.get());
+    }
+
+    /** Producer thread. Inputs lost to a full ring so far. */
+    public long getDropped() {
+        return dropped;
+    }
+}
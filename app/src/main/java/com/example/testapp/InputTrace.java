@@ -0,0 +1,179 @@
+package com.example.testapp;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Compact binary record of everything that drives GameLogic, enough to replay a session
+ * exactly (see TraceReplayer).
+ *
+ * Layout: a 24-byte header (magic, version, RNG seed, clock time at the start), then one
+ * record per event: a type byte and a zigzag varint delta from the previous record's time.
+ * UPDATE is one simulation update at that clock time; a jump's time is its input event
+ * time, recorded when the update drained it, so jumps precede the UPDATE that applied them.
+ * Commands (start, pause, ...) carry the clock time they ran at. A 60 Hz session costs
+ * about 120 bytes per second.
+ */
+public final class InputTrace {
+
+    private static final int MAGIC = 0x47545243; // "GTRC"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+
+    public static final int END = 0;
+    public static final int UPDATE = 1;
+    public static final int JUMP_LEFT = 2;
+    public static final int JUMP_RIGHT = 3;
+    public static final int START = 4;
+    public static final int RESTART = 5;
+    public static final int PAUSE = 6;
+    public static final int RESUME = 7;
+    public static final int MENU = 8;
+    public static final int ENDLESS = 9;
+
+    private InputTrace() {
+    }
+
+    /** Appends records to a growing buffer; allocates only when the buffer doubles. */
+    public static final class Recorder {
+        private byte[] data = new byte[16 * 1024];
+        private int length = 0;
+        private long lastTime;
+        private int records = 0;
+
+        public Recorder(long seed, long startTime) {
+            writeInt(MAGIC);
+            writeInt(VERSION);
+            writeLong(seed);
+            writeLong(startTime);
+            lastTime = startTime;
+        }
+
+        public void record(int type, long time) {
+            ensure(11);
+            data[length++] = (byte) type;
+            long delta = time - lastTime;
+            long zigzag = (delta << 1) ^ (delta >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                data[length++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            data[length++] = (byte) zigzag;
+            lastTime = time;
+            records++;
+        }
+
+        public int getRecordCount() {
+            return records;
+        }
+
+        /** Finish with an END record and write the trace to file. */
+        public void writeTo(File file) throws IOException {
+            ensure(1);
+            data[length++] = (byte) END;
+            try (OutputStream out = new FileOutputStream(file)) {
+                out.write(data, 0, length);
+            }
+        }
+
+        private void writeInt(int v) {
+            ensure(4);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                data[length++] = (byte) (v >>> shift);
+            }
+        }
+
+        private void writeLong(long v) {
+            writeInt((int) (v >>> 32));
+            writeInt((int) v);
+        }
+
+        private void ensure(int bytes) {
+            if (length + bytes > data.length) {
+                byte[] grown = new byte[Math.max(data.length * 2, length + bytes)];
+                System.arraycopy(data, 0, grown, 0, length);
+                data = grown;
+            }
+        }
+    }
+
+    /** Reads records back in order: call next() until it returns END. */
+    public static final class Reader {
+        private final byte[] data;
+        private int position;
+        private final long seed;
+        private final long startTime;
+        private long time;
+
+        public Reader(byte[] trace) throws IOException {
+            data = trace;
+            if (data.length < HEADER_BYTES || readInt() != MAGIC) {
+                throw new IOException("Not an input trace");
+            }
+            int version = readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported trace version " + version);
+            }
+            seed = readLong();
+            startTime = readLong();
+            time = startTime;
+        }
+
+        public long getSeed() { return seed; }
+        public long getStartTime() { return startTime; }
+
+        /** Type of the next record (END at the end of data), its time then in getTime(). */
+        public int next() throws IOException {
+            if (position >= data.length) return END;
+            int type = data[position++];
+            if (type == END) return END;
+
+            long zigzag = 0;
+            int shift = 0;
+            while (true) {
+                if (position >= data.length || shift > 63) {
+                    throw new IOException("Truncated trace");
+                }
+                byte b = data[position++];
+                zigzag |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) break;
+                shift += 7;
+            }
+            time += (zigzag >>> 1) ^ -(zigzag & 1);
+            return type;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        private int readInt() {
+            int v = 0;
+            for (int i = 0; i < 4; i++) {
+                v = (v << 8) | (data[position++] & 0xFF);
+            }
+            return v;
+        }
+
+        private long readLong() {
+            return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+        }
+    }
+
+    public static byte[] readFile(File file) throws IOException {
+        byte[] bytes = new byte[(int) file.length()];
+        try (InputStream in = new FileInputStream(file)) {
+            int read = 0;
+            while (read < bytes.length) {
+                int n = in.read(bytes, read, bytes.length - read);
+                if (n < 0) throw new IOException("Short read of " + file);
+                read += n;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.testapp;
+
+import java.util.Random;
+
+/**
+ * One fixed-length stretch of the library corridor: SHELVES_PER_CHUNK pairs of bookshelves
+ * with their shelf books and candles, and the floating books beside them.
+ *
+ * GameRenderer keeps a small pool of chunks in front of the camera and regenerates one in
+ * place when it moves to a new position. The contents come only from the chunk number and
+ * the library seed, so a chunk looks the same every time it comes back. Where it sits follows
+ * the world origin: chunk n starts at z = (n - originChunk) * LENGTH, and an endless rebase
+ * moves the chunks already built (shiftZ) instead of rebuilding them.
+ *
+ * Geometry is baked in world space: shelves, shelf books and candle sticks into one
+ * StaticMesh (a segment per shelf pair), floating books into a BookMesh. Both re-upload
+ * into the same GL buffers on regeneration. GL thread only.
+ */
+public class LibraryChunk {
+
+    static final int SHELVES_PER_CHUNK = 4;
+    static final float SHELF_SPACING = 5f; // same as GameLogic's platform spacing
+    static final float LENGTH = SHELVES_PER_CHUNK * SHELF_SPACING;
+    static final int BOOKS_PER_CHUNK = 5;
+
+    private static final int BOOKS_PER_SHELF = 5;
+    private static final int SUPPORTS_PER_SHELF = 6;
+    private static final int BOX_COUNT =
+            SHELVES_PER_CHUNK * 2 * (SUPPORTS_PER_SHELF + BOOKS_PER_SHELF + 1);
+
+    // Shelf rows are baked as one segment each: x within ±5.75, y 0..6.4, z within ±0.9
+    private static final float SHELF_ROW_CENTER_Y = 3.15f;
+    private static final float SHELF_ROW_RADIUS = 7.1f;
+
+    // Whole chunk for culling: floating books reach x ±8.6 and y 9.5 with their orbits,
+    // and up to half a shelf spacing past either end
+    private static final float BOUND_CENTER_Y = 4.5f;
+    private static final float BOUND_RADIUS = 17f;
+
+    // Dark wood color for shelves
+    private static final float[] WOOD_COLOR = {0.25f, 0.15f, 0.08f, 0.95f};
+    private static final float[][] BOOK_COLORS = {
+            {0.6f, 0.2f, 0.15f, 0.9f},  // Red leather
+            {0.15f, 0.3f, 0.15f, 0.9f}, // Green leather
+            {0.4f, 0.3f, 0.2f, 0.9f},   // Brown leather
+            {0.15f, 0.2f, 0.5f, 0.9f},  // Blue leather
+            {0.5f, 0.4f, 0.2f, 0.9f}    // Tan leather
+    };
+    private static final float[] CANDLE_COLOR = {0.9f, 0.9f, 0.8f, 0.9f};
+
+    static class MagicalBook {
+        float x, y, z;
+        float orbitRadius;
+        float orbitSpeed;
+        float bobSpeed;
+        float bobOffset;
+        float size;
+        float rotationAngle;
+        float tiltAngle;
+        float spinSpeed;
+        float pageFlipSpeed;
+        final float[] coverColor = new float[4];
+        final float[] pageColor = new float[4];
+        int bookStyle; // 0=ancient, 1=mystical, 2=glowing
+        float boundRadius; // covers orbit, bob, spin and effects around (x, y, z)
+        int lodLevel = BookLod.LEVEL_NEAR;
+
+        void set(float x, float y, float z, Random rand) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.orbitRadius = rand.nextFloat() * 2f + 0.5f;
+            this.orbitSpeed = rand.nextFloat() * 0.3f + 0.2f;
+            this.bobSpeed = rand.nextFloat() * 0.8f + 0.4f;
+            this.bobOffset = rand.nextFloat() * 6.28f;
+            this.size = rand.nextFloat() * 0.3f + 0.25f;
+            this.rotationAngle = rand.nextFloat() * 360f;
+            this.tiltAngle = rand.nextFloat() * 30f - 15f;
+            this.spinSpeed = rand.nextFloat() * 20f + 10f;
+            this.pageFlipSpeed = rand.nextFloat() * 2f + 1f;
+            this.bookStyle = rand.nextInt(3);
+            this.boundRadius = orbitRadius * 0.5f * 1.42f + 0.4f + size * 1.5f;
+            this.lodLevel = BookLod.LEVEL_NEAR;
+
+            // Generate varied cover colors
+            switch(bookStyle) {
+                case 0: // Ancient leather
+                    setColor(coverColor,
+                            0.3f + rand.nextFloat() * 0.2f,
+                            0.15f + rand.nextFloat() * 0.1f,
+                            0.08f);
+                    break;
+                case 1: // Mystical blue/purple
+                    setColor(coverColor,
+                            0.2f + rand.nextFloat() * 0.2f,
+                            0.15f + rand.nextFloat() * 0.2f,
+                            0.5f + rand.nextFloat() * 0.3f);
+                    break;
+                case 2: // Glowing gold/red
+                    setColor(coverColor,
+                            0.6f + rand.nextFloat() * 0.2f,
+                            0.3f + rand.nextFloat() * 0.2f,
+                            0.1f);
+                    break;
+            }
+
+            setColor(pageColor,
+                    0.95f - rand.nextFloat() * 0.1f,
+                    0.9f - rand.nextFloat() * 0.1f,
+                    0.75f - rand.nextFloat() * 0.1f);
+        }
+
+        private static void setColor(float[] color, float r, float g, float b) {
+            color[0] = r;
+            color[1] = g;
+            color[2] = b;
+            color[3] = 0.95f;
+        }
+    }
+
+    static class Candle {
+        static final float FLAME_BOUND_RADIUS = 0.3f;
+
+        float x, y, z;
+        float flickerOffset;
+
+        void set(float x, float y, float z, Random rand) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.flickerOffset = rand.nextFloat() * 6.28f;
+        }
+    }
+
+    // Chunk number along the corridor, or -1 when unused
+    private int index = -1;
+    private float startZ;
+
+    final MagicalBook[] books = new MagicalBook[BOOKS_PER_CHUNK];
+    final Candle[] leftCandles = new Candle[SHELVES_PER_CHUNK];
+    final Candle[] rightCandles = new Candle[SHELVES_PER_CHUNK];
+
+    private final StaticMesh shelves = new StaticMesh(BOX_COUNT);
+    private final BookMesh bookMesh = new BookMesh(BOOKS_PER_CHUNK);
+    private boolean needsUpload = false;
+
+    private final Random rand = new Random();
+
+    public LibraryChunk() {
+        for (int i = 0; i < BOOKS_PER_CHUNK; i++) {
+            books[i] = new MagicalBook();
+        }
+        for (int i = 0; i < SHELVES_PER_CHUNK; i++) {
+            leftCandles[i] = new Candle();
+            rightCandles[i] = new Candle();
+        }
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Rebuild this chunk as chunk number index, for a world moved back by originChunk chunks
+     * (CPU side; upload() sends it to the GPU).
+     */
+    public void generate(int index, int originChunk, long librarySeed) {
+        this.index = index;
+        startZ = (index - originChunk) * LENGTH;
+        rand.setSeed(chunkSeed(librarySeed, index));
+
+        float thickness = Cube.GLASS_THICKNESS;
+        shelves.clear();
+        for (int i = 0; i < SHELVES_PER_CHUNK; i++) {
+            float z = startZ + i * SHELF_SPACING;
+
+            // Shelf boards
+            for (int h = 0; h < SUPPORTS_PER_SHELF; h++) {
+                shelves.addBox(-5f, h * 1.2f, z, 1.5f, thickness, 1.5f, WOOD_COLOR);
+                shelves.addBox(5f, h * 1.2f, z, 1.5f, thickness, 1.5f, WOOD_COLOR);
+            }
+
+            // Books on shelves
+            for (int j = 0; j < BOOKS_PER_SHELF; j++) {
+                float bookY = j * 1.2f + 0.5f;
+                float leftZ = z + (rand.nextFloat() - 0.5f) * 0.3f;
+                float rightZ = z + (rand.nextFloat() - 0.5f) * 0.3f;
+                shelves.addBox(-5.3f, bookY, leftZ, 0.25f, thickness, 0.25f, BOOK_COLORS[j]);
+                shelves.addBox(5.3f, bookY, rightZ, 0.25f, thickness, 0.25f, BOOK_COLORS[j]);
+            }
+
+            // Candle sticks (the flames flicker and stay dynamic)
+            Candle leftCandle = leftCandles[i];
+            Candle rightCandle = rightCandles[i];
+            leftCandle.set(-5f, 6f, z, rand);
+            rightCandle.set(5f, 6f, z, rand);
+            shelves.addBox(leftCandle.x, leftCandle.y, leftCandle.z, 0.15f, thickness, 0.15f, CANDLE_COLOR);
+            shelves.addBox(rightCandle.x, rightCandle.y, rightCandle.z, 0.15f, thickness, 0.15f, CANDLE_COLOR);
+
+            shelves.endSegment(0f, SHELF_ROW_CENTER_Y, z, SHELF_ROW_RADIUS);
+        }
+
+        // Floating magical books, kept to the sides outside the play area (beyond ±3f)
+        bookMesh.clear();
+        for (MagicalBook book : books) {
+            float x;
+            if (rand.nextBoolean()) {
+                x = -4f - rand.nextFloat() * 4f; // Between -4 and -8
+            } else {
+                x = 4f + rand.nextFloat() * 4f; // Between 4 and 8
+            }
+            float z = startZ - SHELF_SPACING * 0.5f + rand.nextFloat() * LENGTH;
+            float y = rand.nextFloat() * 6f + 2f;
+            book.set(x, y, z, rand);
+
+            bookMesh.addBook(book.x, book.y, book.z, book.size,
+                    book.orbitRadius, book.orbitSpeed, book.bobSpeed, book.bobOffset,
+                    book.spinSpeed, book.tiltAngle, book.pageFlipSpeed, book.bookStyle,
+                    book.coverColor, book.pageColor);
+        }
+
+        needsUpload = true;
+    }
+
+    // Decorrelate neighbouring chunk numbers (SplitMix64 finaliser)
+    private static long chunkSeed(long librarySeed, int index) {
+        long z = librarySeed + index * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** Move the whole chunk along z, as the world origin moves; re-uploaded on the next upload(). */
+    public void shiftZ(float dz) {
+        if (index < 0) return;
+        startZ += dz;
+        for (MagicalBook book : books) {
+            book.z += dz;
+        }
+        for (int i = 0; i < SHELVES_PER_CHUNK; i++) {
+            leftCandles[i].z += dz;
+            rightCandles[i].z += dz;
+        }
+        shelves.translateZ(dz);
+        bookMesh.translateZ(dz);
+        needsUpload = true;
+    }
+
+    public boolean isVisible(Frustum frustum) {
+        return frustum.isSphereVisible(0f, BOUND_CENTER_Y, startZ + LENGTH * 0.5f - SHELF_SPACING * 0.5f,
+                BOUND_RADIUS);
+    }
+
+    // ------------------------
+    // GL lifecycle (GL thread only)
+    // ------------------------
+
+    /** Send the latest contents to the GPU, reusing the buffers of earlier ones. */
+    public void upload() {
+        if (index < 0) return;
+        if (needsUpload) {
+            shelves.reupload();
+            bookMesh.reupload();
+            needsUpload = false;
+        } else {
+            shelves.upload();
+            bookMesh.upload();
+        }
+    }
+
+    public void invalidate() {
+        shelves.invalidate();
+        bookMesh.invalidate();
+    }
+
+    // ------------------------
+    // Drawing
+    // ------------------------
+
+    /** Draw only the first count floating books of this chunk (quality tiers). */
+    public void setVisibleBooks(int count) {
+        bookMesh.setVisibleBooks(count);
+    }
+
+    public boolean areBooksReady() {
+        return bookMesh.isReady();
+    }
+
+    /** Shelves, shelf books and candle sticks; returns the shelf rows culled. */
+    public int drawShelves(float[] vpMatrix, Frustum frustum) {
+        return shelves.draw(vpMatrix, frustum);
+    }
+
+    public void drawBookPieces(float[] vpMatrix, float time, float camX, float camY, float camZ, BookLod lod) {
+        bookMesh.drawPieces(vpMatrix, time, camX, camY, camZ, lod);
+    }
+
+    public void drawBookEffects(float[] vpMatrix, float time) {
+        bookMesh.drawEffects(vpMatrix, time);
+    }
+}
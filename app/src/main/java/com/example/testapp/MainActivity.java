@@ -10,16 +10,20 @@ import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import java.io.File;
+
 public class MainActivity extends AppCompatActivity {
 
     private GameSurfaceView gameView;
     private Handler uiHandler = new Handler();
     private TextView tvLevel;
     private TextView tvMemoryPhase;
+    private TextView tvPerfOverlay;
+    private final StringBuilder perfText = new StringBuilder(512);
     private Runnable tickRunnable;
 
     private LinearLayout mainMenu, pauseMenu, winMenu;
-    private Button btnStartGame, btnResume, btnRestartPause, btnReturnMenu, btnNextLevel, btnReturnMenuWin;
+    private Button btnStartGame, btnStartEndless, btnResume, btnRestartPause, btnReturnMenu, btnNextLevel, btnReturnMenuWin;
     private GameLogic logic;
 
     private boolean winMenuShown = false;
@@ -33,12 +37,14 @@ public class MainActivity extends AppCompatActivity {
         gameView = findViewById(R.id.gameView);
         tvLevel = findViewById(R.id.tvLevel);
         tvMemoryPhase = findViewById(R.id.tvMemoryPhase);
+        tvPerfOverlay = findViewById(R.id.tvPerfOverlay);
 
         mainMenu = findViewById(R.id.mainMenu);
         pauseMenu = findViewById(R.id.pauseMenu);
         winMenu = findViewById(R.id.winMenu);
 
         btnStartGame = findViewById(R.id.btnStartGame);
+        btnStartEndless = findViewById(R.id.btnStartEndless);
         btnResume = findViewById(R.id.btnResume);
         btnRestartPause = findViewById(R.id.btnRestartPause);
         btnReturnMenu = findViewById(R.id.btnReturnMenu);
@@ -46,6 +52,8 @@ public class MainActivity extends AppCompatActivity {
         btnReturnMenuWin = findViewById(R.id.btnReturnMenuWin);
 
         logic = gameView.getRenderer().getLogic();
+        // Commands run on the simulation thread; follow the state once it has been applied
+        gameView.getRenderer().setGameStateListener(state -> uiHandler.post(this::syncRenderPolicy));
 
         if (logic == null) {
             return; // Emergency exit if logic failed to initialize
@@ -58,6 +66,13 @@ public class MainActivity extends AppCompatActivity {
             logic.startGame();
         });
 
+        btnStartEndless.setOnClickListener(v -> {
+            if (logic == null || isActivityDestroyed) return;
+            mainMenu.setVisibility(View.GONE);
+            winMenuShown = false;
+            logic.startEndless();
+        });
+
         btnResume.setOnClickListener(v -> {
             if (logic == null || isActivityDestroyed) return;
             logic.resumeGame();
@@ -94,6 +109,12 @@ public class MainActivity extends AppCompatActivity {
             mainMenu.setVisibility(View.VISIBLE);
         });
 
+        // Hidden toggle for QA and field testers
+        tvLevel.setOnLongClickListener(v -> {
+            togglePerfOverlay();
+            return true;
+        });
+
         tickRunnable = new Runnable() {
             @Override
             public void run() {
@@ -106,6 +127,42 @@ public class MainActivity extends AppCompatActivity {
         uiHandler.post(tickRunnable);
     }
 
+    // Render continuously only while the scene is actually played
+    private void syncRenderPolicy() {
+        if (gameView != null && logic != null && !isActivityDestroyed) {
+            gameView.updateRenderPolicy(logic.getGameState());
+        }
+    }
+
+    private void togglePerfOverlay() {
+        GameRenderer renderer = gameView.getRenderer();
+        boolean enabled = !renderer.isPerfOverlayEnabled();
+        renderer.setPerfOverlayEnabled(enabled);
+        tvPerfOverlay.setVisibility(enabled ? View.VISIBLE : View.GONE);
+        if (enabled) {
+            tvPerfOverlay.setText("Collecting...");
+        }
+    }
+
+    private void toggleTraceRecording() {
+        if (logic.isRecording()) {
+            File dir = new File(getFilesDir(), "traces");
+            dir.mkdirs();
+            logic.stopRecording(new File(dir, "trace-" + System.currentTimeMillis() + ".gtrc"));
+        } else {
+            logic.startRecording();
+        }
+    }
+
+    private void updatePerfOverlay() {
+        if (!PerfStats.isEnabled()) return;
+        PerfStats.Summary summary = PerfStats.acquire();
+        if (summary != null) {
+            PerfStats.format(summary, perfText);
+            tvPerfOverlay.setText(perfText);
+        }
+    }
+
     private void updateUI() {
         if (logic == null || isActivityDestroyed) return;
 
@@ -118,7 +175,10 @@ public class MainActivity extends AppCompatActivity {
                 long remainingMs = logic.getMemoryPhaseRemainingMs();
                 double remainingSec = remainingMs / 1000.0;
 
-                if (remainingMs > 0) {
+                if (remainingMs > 0 && logic.isEndless()) {
+                    tvMemoryPhase.setText(String.format("Endless\nMemorize the path!\n%.1fs",
+                            remainingSec));
+                } else if (remainingMs > 0) {
                     tvMemoryPhase.setText(String.format("Level %d\nMemorize the path!\n%.1fs",
                             logic.getCurrentLevel(), remainingSec));
                 } else {
@@ -128,9 +188,16 @@ public class MainActivity extends AppCompatActivity {
                 tvMemoryPhase.setVisibility(View.GONE);
                 tvLevel.setVisibility(View.VISIBLE);
 
-                tvLevel.setText(String.format("Level %d", logic.getCurrentLevel()));
+                if (logic.isEndless()) {
+                    tvLevel.setText(String.format("Distance %d (best %d)",
+                            logic.getEndlessDistance(), logic.getEndlessBest()));
+                } else {
+                    tvLevel.setText(String.format("Level %d", logic.getCurrentLevel()));
+                }
             }
 
+            updatePerfOverlay();
+
             // Show win menu only once
             if (logic.isGameWon() && !winMenuShown) {
                 winMenuShown = true;
@@ -170,6 +237,17 @@ public class MainActivity extends AppCompatActivity {
     public boolean onKeyDown(int keyCode, KeyEvent event) {
         if (logic == null || isActivityDestroyed) return super.onKeyDown(keyCode, event);
 
+        if (keyCode == KeyEvent.KEYCODE_F3) {
+            togglePerfOverlay();
+            return true;
+        }
+
+        // Input trace recording, from the main menu so a trace always starts at level 1
+        if (keyCode == KeyEvent.KEYCODE_F5 && mainMenu.getVisibility() == View.VISIBLE) {
+            toggleTraceRecording();
+            return true;
+        }
+
         if (keyCode == KeyEvent.KEYCODE_ESCAPE) {
             if (logic.isPlaying()) {
                 logic.pauseGame();
@@ -184,31 +262,20 @@ public class MainActivity extends AppCompatActivity {
             return false;
         }
 
-        if (!logic.isPlaying()) return true;
-
-        switch (keyCode) {
-            case KeyEvent.KEYCODE_DPAD_LEFT:
-            case KeyEvent.KEYCODE_A:
-                logic.jumpLeft();
-                return true;
-            case KeyEvent.KEYCODE_DPAD_RIGHT:
-            case KeyEvent.KEYCODE_D:
-                logic.jumpRight();
-                return true;
-        }
-
+        // Jump keys are handled by GameSurfaceView
         return super.onKeyDown(keyCode, event);
     }
 
     @Override
     protected void onPause() {
         super.onPause();
-        if (gameView != null) {
-            gameView.onPause();
-        }
+        // Posted before the simulation pauses (a paused simulation still runs commands)
         if (logic != null && logic.isPlaying()) {
             logic.pauseGame();
         }
+        if (gameView != null) {
+            gameView.onPause();
+        }
     }
 
     @Override
@@ -231,7 +298,7 @@ public class MainActivity extends AppCompatActivity {
         if (gameView != null) {
             gameView.onPause();
         }
-        // Release OpenGL resources
+        // Stop the simulation; GL resources go with the surface's EGL context
         if (gameView != null && gameView.getRenderer() != null) {
             gameView.getRenderer().release();
         }
@@ -0,0 +1,252 @@
+package com.example.testapp;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Frame cost registry behind the performance overlay.
+ *
+ * The GL thread records one sample per frame into per-metric rings it owns, and every
+ * PUBLISH_EVERY frames turns them into a Summary (last, p50, p95, p99 per metric). Summaries
+ * reach the reader (the UI thread) through a three-slot exchange on one AtomicInteger, the
+ * same hand-over as SnapshotExchange: no locks, no allocation, the writer never waits.
+ *
+ * Input-to-present latency is per jump rather than per frame and has a ring of its own.
+ * The simulation thread only publishes its last update time through a volatile field.
+ * Nothing is recorded while disabled; callers check isEnabled() first, so the cost when
+ * the overlay is off is one volatile read per frame.
+ */
+public class PerfStats {
+
+    public static final int FRAME_MS = 0;      // interval between frames
+    public static final int UPDATE_MS = 1;     // simulation update (simulation thread)
+    public static final int DRAW_MS = 2;       // CPU time of onDrawFrame
+    public static final int DRAW_CALLS = 3;
+    public static final int STATE_CHANGES = 4; // GL state calls GlState let through
+    public static final int CULLED = 5;
+    public static final int METRIC_COUNT = 6;
+
+    private static final int WINDOW_FRAMES = 120;
+    private static final int PUBLISH_EVERY = 30;
+    private static final int LATENCY_WINDOW = 32;
+    private static final float MAX_FRAME_MS = 250f; // longer gaps are pauses
+
+    private static volatile boolean enabled = false;
+    private static volatile boolean requestReset = false;
+
+    // Simulation thread -> GL thread
+    private static volatile long lastUpdateNanos = 0;
+
+    // ------------------------
+    // Writer state (GL thread only)
+    // ------------------------
+    private static final float[][] samples = new float[METRIC_COUNT][WINDOW_FRAMES];
+    private static final float[] sorted = new float[WINDOW_FRAMES];
+    private static int sampleCount = 0;
+    private static int sampleIndex = 0;
+    private static int framesSincePublish = 0;
+    private static long lastFrameNanos = 0;
+    private static long lastStateCalls = 0;
+    private static long lastPublishNanos = 0;
+    private static long lastUsedHeap = -1;
+    private static float allocKbPerSecond = -1f;
+    private static final float[] latencySamples = new float[LATENCY_WINDOW];
+    private static final float[] latencySorted = new float[LATENCY_WINDOW];
+    private static int latencyCount = 0;
+    private static int latencyIndex = 0;
+
+    /** One published set of figures. Valid until the reader's next acquire(). */
+    public static final class Summary {
+        public final float[] last = new float[METRIC_COUNT];
+        public final float[] p50 = new float[METRIC_COUNT];
+        public final float[] p95 = new float[METRIC_COUNT];
+        public final float[] p99 = new float[METRIC_COUNT];
+        public int qualityTier;
+        public float allocKbPerSecond; // -1 when a GC ran during the window
+        public int sampleCount;
+        // Input-to-present per jump, over the last LATENCY_WINDOW jumps (latencyCount 0: none yet)
+        public float latencyLast, latencyP50, latencyP95, latencyP99;
+        public int latencyCount;
+    }
+
+    private static final int INDEX_MASK = 0x3;
+    private static final int FRESH = 0x4;
+    private static final Summary[] summaries = {new Summary(), new Summary(), new Summary()};
+    private static final AtomicInteger middle = new AtomicInteger(1);
+    private static int back = 0;      // GL thread only
+    private static int front = 2;     // reader only
+    private static boolean received = false; // reader only
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Any thread. Turning collection on starts from an empty window. */
+    public static void setEnabled(boolean on) {
+        if (on && !enabled) {
+            requestReset = true;
+        }
+        enabled = on;
+    }
+
+    /** Simulation thread. */
+    public static void recordUpdate(long nanos) {
+        lastUpdateNanos = nanos;
+    }
+
+    /**
+     * GL thread, at the end of a frame. frameStartNanos is when onDrawFrame began, drawNanos
+     * how long it took.
+     */
+    public static void recordFrame(long frameStartNanos, long drawNanos, int qualityTier) {
+        if (requestReset) {
+            requestReset = false;
+            sampleCount = 0;
+            sampleIndex = 0;
+            framesSincePublish = 0;
+            lastFrameNanos = 0;
+            lastUsedHeap = -1;
+            lastStateCalls = GlState.getIssuedCalls();
+            latencyCount = 0;
+            latencyIndex = 0;
+        }
+
+        long stateCalls = GlState.getIssuedCalls();
+        float frameMs = lastFrameNanos != 0 ? (frameStartNanos - lastFrameNanos) / 1_000_000f : 0f;
+        lastFrameNanos = frameStartNanos;
+        if (frameMs >= MAX_FRAME_MS) {
+            lastStateCalls = stateCalls;
+            return;
+        }
+
+        int i = sampleIndex;
+        samples[FRAME_MS][i] = frameMs;
+        samples[UPDATE_MS][i] = lastUpdateNanos / 1_000_000f;
+        samples[DRAW_MS][i] = drawNanos / 1_000_000f;
+        samples[DRAW_CALLS][i] = RenderStats.drawCalls;
+        samples[STATE_CHANGES][i] = stateCalls - lastStateCalls;
+        samples[CULLED][i] = RenderStats.objectsCulled;
+        lastStateCalls = stateCalls;
+
+        sampleIndex = (sampleIndex + 1) % WINDOW_FRAMES;
+        if (sampleCount < WINDOW_FRAMES) sampleCount++;
+
+        if (++framesSincePublish >= PUBLISH_EVERY) {
+            framesSincePublish = 0;
+            publish(frameStartNanos, qualityTier, i);
+        }
+    }
+
+    /** GL thread. Time from a jump's input event to the end of the frame that first drew it. */
+    public static void recordInputLatency(long millis) {
+        latencySamples[latencyIndex] = millis;
+        latencyIndex = (latencyIndex + 1) % LATENCY_WINDOW;
+        if (latencyCount < LATENCY_WINDOW) latencyCount++;
+    }
+
+    private static void publish(long nowNanos, int qualityTier, int lastIndex) {
+        updateAllocationRate(nowNanos);
+
+        Summary out = summaries[back];
+        for (int m = 0; m < METRIC_COUNT; m++) {
+            System.arraycopy(samples[m], 0, sorted, 0, sampleCount);
+            Arrays.sort(sorted, 0, sampleCount);
+            out.last[m] = samples[m][lastIndex];
+            out.p50[m] = sorted[(sampleCount * 50) / 100];
+            out.p95[m] = sorted[(sampleCount * 95) / 100];
+            out.p99[m] = sorted[(sampleCount * 99) / 100];
+        }
+        out.qualityTier = qualityTier;
+        out.allocKbPerSecond = allocKbPerSecond;
+        out.sampleCount = sampleCount;
+
+        out.latencyCount = latencyCount;
+        if (latencyCount > 0) {
+            System.arraycopy(latencySamples, 0, latencySorted, 0, latencyCount);
+            Arrays.sort(latencySorted, 0, latencyCount);
+            out.latencyLast = latencySamples[(latencyIndex + LATENCY_WINDOW - 1) % LATENCY_WINDOW];
+            out.latencyP50 = latencySorted[(latencyCount * 50) / 100];
+            out.latencyP95 = latencySorted[(latencyCount * 95) / 100];
+            out.latencyP99 = latencySorted[(latencyCount * 99) / 100];
+        }
+
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    // Growth of the used heap since the last publish; a drop means a GC ran in between
+    private static void updateAllocationRate(long nowNanos) {
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        if (lastUsedHeap >= 0 && used >= lastUsedHeap && nowNanos > lastPublishNanos) {
+            float seconds = (nowNanos - lastPublishNanos) / 1_000_000_000f;
+            allocKbPerSecond = (used - lastUsedHeap) / 1024f / seconds;
+        } else {
+            allocKbPerSecond = -1f;
+        }
+        lastUsedHeap = used;
+        lastPublishNanos = nowNanos;
+    }
+
+    /** Reader thread (one). Latest summary, or null before the first publish. */
+    public static Summary acquire() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+            received = true;
+        }
+        return received ? summaries[front] : null;
+    }
+
+    /** Overlay text for a summary. */
+    public static void format(Summary s, StringBuilder out) {
+        out.setLength(0);
+        out.append("quality ").append(QualityGovernor.getTierName(s.qualityTier))
+                .append("   ").append(s.sampleCount).append(" frames\n");
+        out.append("           last   p50   p95   p99\n");
+        appendRow(out, "frame ms", s, FRAME_MS, true);
+        appendRow(out, "update ms", s, UPDATE_MS, true);
+        appendRow(out, "draw ms", s, DRAW_MS, true);
+        appendRow(out, "draws", s, DRAW_CALLS, false);
+        appendRow(out, "state", s, STATE_CHANGES, false);
+        appendRow(out, "culled", s, CULLED, false);
+        out.append("input ms  ");
+        if (s.latencyCount == 0) {
+            out.append("  (no jumps)\n");
+        } else {
+            appendFixed(out, s.latencyLast, false);
+            appendFixed(out, s.latencyP50, false);
+            appendFixed(out, s.latencyP95, false);
+            appendFixed(out, s.latencyP99, false);
+            out.append('\n');
+        }
+        out.append("alloc ");
+        if (s.allocKbPerSecond < 0f) {
+            out.append("(gc)");
+        } else {
+            appendFixed(out, s.allocKbPerSecond, false);
+            out.append(" KB/s");
+        }
+    }
+
+    private static void appendRow(StringBuilder out, String label, Summary s, int metric,
+                                  boolean fraction) {
+        out.append(label);
+        for (int i = label.length(); i < 10; i++) out.append(' ');
+        appendFixed(out, s.last[metric], fraction);
+        appendFixed(out, s.p50[metric], fraction);
+        appendFixed(out, s.p95[metric], fraction);
+        appendFixed(out, s.p99[metric], fraction);
+        out.append('\n');
+    }
+
+    // Right-aligned in 6 columns, one decimal for times
+    private static void appendFixed(StringBuilder out, float value, boolean fraction) {
+        int start = out.length();
+        if (fraction) {
+            int tenths = Math.round(value * 10f);
+            out.append(tenths / 10).append('.').append(Math.abs(tenths % 10));
+        } else {
+            out.append(Math.round(value));
+        }
+        while (out.length() - start < 6) out.insert(start, ' ');
+    }
+}
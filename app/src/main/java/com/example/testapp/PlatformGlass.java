@@ -9,6 +9,10 @@ public class PlatformGlass {
     private static final float MAX_FALL_DISTANCE = 3f;
     private static final float BREAK_ROTATION_SPEED = 8f;
 
+    // Bounding sphere: both slabs (or the wide stone), outlines above and shards falling below
+    private static final float BOUND_CENTER_DROP = 1.2f;
+    private static final float BOUND_RADIUS = 3.3f;
+
     private float y, z;
     private int index;
     private boolean leftIsCorrect;
@@ -22,6 +26,16 @@ public class PlatformGlass {
     private float rotationLeft = 0f;
     private float rotationRight = 0f;
 
+    // Break animation before the last step, and the blend of both shown this frame
+    private float prevBreakLeft = 0f;
+    private float prevBreakRight = 0f;
+    private float prevRotationLeft = 0f;
+    private float prevRotationRight = 0f;
+    private float renderBreakLeft = 0f;
+    private float renderBreakRight = 0f;
+    private float renderRotationLeft = 0f;
+    private float renderRotationRight = 0f;
+
     private float xLeft = X_LEFT;
     private float xRight = X_RIGHT;
 
@@ -29,11 +43,67 @@ public class PlatformGlass {
     private boolean showingMemoryHint = false;
     private float memoryHintAlpha = 1.0f;
 
+    private static final float[] STONE_COLOR = {0.25f, 0.2f, 0.15f, 0.95f}; // Dark weathered stone
+    private static final float[] FINISH_GLOW_COLOR = {0.4f, 0.8f, 0.3f, 0.6f}; // Green magical glow for finish
+    private static final float[] START_GLOW_COLOR = {0.5f, 0.5f, 0.8f, 0.6f};  // Blue magical glow for start
+
+    private static final float[][] PIECE_OFFSETS = {
+            {-1, 0, -1},
+            {1, 0, -1},
+            {-1, 0, 1},
+            {1, 0, 1}
+    };
+    private static final float[] ROTATION_MULTIPLIERS = {1.2f, 0.8f, 1.5f, 0.9f};
+
+    // Detail set by the quality governor (GL thread only)
+    private static int outlineLayers = 3;
+    private static boolean shardTrails = true;
+
+    // Draw scratch, shared by all platforms (GL thread only)
+    private static final Cube drawCube = new Cube(0f, 0f, 0f);
+    private static final float[] glassColor = new float[4];
+    private static final float[] edgeGlow = new float[4];
+    private static final float[] layerColor = new float[4];
+    private static final float[] breakColor = new float[4];
+    private static final float[] trailColor = new float[4];
+
     public PlatformGlass(int idx, boolean correctLeft, float y, float z) {
+        reset(idx, correctLeft, y, z);
+    }
+
+    /** Reuse this instance as a fresh, unbroken platform (GameLogic pools them). */
+    public void reset(int idx, boolean correctLeft, float y, float z) {
         this.index = idx;
         this.leftIsCorrect = correctLeft;
         this.y = y;
         this.z = z;
+        isFinish = false;
+        isStart = false;
+
+        leftBroken = false;
+        rightBroken = false;
+        breakProgressLeft = breakProgressRight = 0f;
+        rotationLeft = rotationRight = 0f;
+        prevBreakLeft = prevBreakRight = 0f;
+        prevRotationLeft = prevRotationRight = 0f;
+        renderBreakLeft = renderBreakRight = 0f;
+        renderRotationLeft = renderRotationRight = 0f;
+
+        xLeft = X_LEFT;
+        xRight = X_RIGHT;
+        showingMemoryHint = false;
+        memoryHintAlpha = 1.0f;
+    }
+
+    /** Move along z with everything else (endless rebase). */
+    public void shiftZ(float dz) {
+        z += dz;
+    }
+
+    /** Memory-hint outline layers (1..3) and whether falling shards leave trails. */
+    public static void setDetail(int layers, boolean trails) {
+        outlineLayers = Math.max(1, Math.min(3, layers));
+        shardTrails = trails;
     }
 
     public void setIsFinish(boolean finish) {
@@ -56,6 +126,13 @@ public class PlatformGlass {
         return isStart;
     }
 
+    /** No break animation in progress: another update() would change nothing. */
+    public boolean isSettled() {
+        return prevBreakLeft == breakProgressLeft && prevBreakRight == breakProgressRight
+                && (!leftBroken || breakProgressLeft >= 1f)
+                && (!rightBroken || breakProgressRight >= 1f);
+    }
+
     public float getX(boolean left) {
         // For start and finish platforms, always return center
         if (isStart || isFinish) {
@@ -72,6 +149,10 @@ public class PlatformGlass {
         return z;
     }
 
+    public boolean isVisible(Frustum frustum) {
+        return frustum.isSphereVisible(0f, y - BOUND_CENTER_DROP, z, BOUND_RADIUS);
+    }
+
     public void breakSide(boolean left) {
         if (left) {
             leftBroken = true;
@@ -91,7 +172,13 @@ public class PlatformGlass {
         this.memoryHintAlpha = Math.max(0f, Math.min(1f, alpha));
     }
 
+    /** One fixed simulation step (GameLogic.SIM_STEP). */
     public void update() {
+        prevBreakLeft = breakProgressLeft;
+        prevBreakRight = breakProgressRight;
+        prevRotationLeft = rotationLeft;
+        prevRotationRight = rotationRight;
+
         if (leftBroken && breakProgressLeft < 1f) {
             breakProgressLeft += FALL_SPEED;
             rotationLeft += BREAK_ROTATION_SPEED;
@@ -109,53 +196,71 @@ public class PlatformGlass {
         }
     }
 
+    /** Blend the last two steps for rendering; alpha in [0, 1) is the progress into the next step. */
+    public void interpolate(float alpha) {
+        renderBreakLeft = prevBreakLeft + (breakProgressLeft - prevBreakLeft) * alpha;
+        renderBreakRight = prevBreakRight + (breakProgressRight - prevBreakRight) * alpha;
+        renderRotationLeft = prevRotationLeft + (rotationLeft - prevRotationLeft) * alpha;
+        renderRotationRight = prevRotationRight + (rotationRight - prevRotationRight) * alpha;
+    }
+
+    /** Copy the simulation state of another platform, for a render snapshot. */
+    public void copyFrom(PlatformGlass src) {
+        y = src.y;
+        z = src.z;
+        index = src.index;
+        leftIsCorrect = src.leftIsCorrect;
+        isFinish = src.isFinish;
+        isStart = src.isStart;
+        leftBroken = src.leftBroken;
+        rightBroken = src.rightBroken;
+        breakProgressLeft = src.breakProgressLeft;
+        breakProgressRight = src.breakProgressRight;
+        rotationLeft = src.rotationLeft;
+        rotationRight = src.rotationRight;
+        prevBreakLeft = src.prevBreakLeft;
+        prevBreakRight = src.prevBreakRight;
+        prevRotationLeft = src.prevRotationLeft;
+        prevRotationRight = src.prevRotationRight;
+        xLeft = src.xLeft;
+        xRight = src.xRight;
+        showingMemoryHint = src.showingMemoryHint;
+        memoryHintAlpha = src.memoryHintAlpha;
+    }
+
     public void draw(float[] vpMatrix) {
         // Start and finish platforms - Ancient stone platforms
         if (isStart || isFinish) {
-            float[] stoneColor = {0.25f, 0.2f, 0.15f, 0.95f}; // Dark weathered stone
-            float[] glowColor = isFinish
-                    ? new float[]{0.4f, 0.8f, 0.3f, 0.6f}  // Green magical glow for finish
-                    : new float[]{0.5f, 0.5f, 0.8f, 0.6f}; // Blue magical glow for start
+            float[] glowColor = isFinish ? FINISH_GLOW_COLOR : START_GLOW_COLOR;
 
             // Main stone platform
-            Cube c = new Cube(0f, y, z);
-            c.size = PLATFORM_SIZE * 2.2f;
-            c.modelRotationX = 0;
-            c.drawWithRotation(vpMatrix, stoneColor);
+            drawSlab(vpMatrix, 0f, y, z, PLATFORM_SIZE * 2.2f, 0f, STONE_COLOR);
 
             // Glowing runes underneath
-            Cube glow = new Cube(0f, y - 0.15f, z);
-            glow.size = PLATFORM_SIZE * 2.0f;
-            glow.modelRotationX = 0;
-            glow.drawWithRotation(vpMatrix, glowColor);
+            drawSlab(vpMatrix, 0f, y - 0.15f, z, PLATFORM_SIZE * 2.0f, 0f, glowColor);
 
             return;
         }
 
         // Mystical glass platforms with magical energy
         float time = android.os.SystemClock.uptimeMillis() / 1000f;
-        float pulse = (float) Math.sin(time * 2f + z * 0.5f) * 0.1f + 0.35f;
+        // Phase by platform number rather than z, so an endless rebase doesn't jump it
+        float pulse = (float) Math.sin(time * 2f + index * 2.5f) * 0.1f + 0.35f;
 
-        float[] glassColor = {0.3f, 0.6f, 0.9f, pulse}; // Shimmering blue-cyan
-        float[] edgeGlow = {0.5f, 0.8f, 1f, pulse * 0.5f}; // Bright edge glow
+        setColor(glassColor, 0.3f, 0.6f, 0.9f, pulse); // Shimmering blue-cyan
+        setColor(edgeGlow, 0.5f, 0.8f, 1f, pulse * 0.5f); // Bright edge glow
 
         // Draw left platform
-        if (!leftBroken || breakProgressLeft < 1f) {
+        if (!leftBroken || renderBreakLeft < 1f) {
             if (leftBroken) {
-                drawShatteredPieces(vpMatrix, xLeft, y - breakProgressLeft * MAX_FALL_DISTANCE, z,
-                        rotationLeft, breakProgressLeft);
+                drawShatteredPieces(vpMatrix, xLeft, y - renderBreakLeft * MAX_FALL_DISTANCE, z,
+                        renderRotationLeft, renderBreakLeft);
             } else {
                 // Main glass platform
-                Cube c = new Cube(xLeft, y, z);
-                c.size = PLATFORM_SIZE;
-                c.modelRotationX = 0;
-                c.drawWithRotation(vpMatrix, glassColor);
+                drawSlab(vpMatrix, xLeft, y, z, PLATFORM_SIZE, 0f, glassColor);
 
                 // Glowing magical border
-                Cube border = new Cube(xLeft, y - 0.08f, z);
-                border.size = PLATFORM_SIZE * 1.1f;
-                border.modelRotationX = 0;
-                border.drawWithRotation(vpMatrix, edgeGlow);
+                drawSlab(vpMatrix, xLeft, y - 0.08f, z, PLATFORM_SIZE * 1.1f, 0f, edgeGlow);
 
                 // Memory hint outline
                 if (showingMemoryHint && memoryHintAlpha > 0) {
@@ -165,22 +270,16 @@ public class PlatformGlass {
         }
 
         // Draw right platform
-        if (!rightBroken || breakProgressRight < 1f) {
+        if (!rightBroken || renderBreakRight < 1f) {
             if (rightBroken) {
-                drawShatteredPieces(vpMatrix, xRight, y - breakProgressRight * MAX_FALL_DISTANCE, z,
-                        rotationRight, breakProgressRight);
+                drawShatteredPieces(vpMatrix, xRight, y - renderBreakRight * MAX_FALL_DISTANCE, z,
+                        renderRotationRight, renderBreakRight);
             } else {
                 // Main glass platform
-                Cube c = new Cube(xRight, y, z);
-                c.size = PLATFORM_SIZE;
-                c.modelRotationX = 0;
-                c.drawWithRotation(vpMatrix, glassColor);
+                drawSlab(vpMatrix, xRight, y, z, PLATFORM_SIZE, 0f, glassColor);
 
                 // Glowing magical border
-                Cube border = new Cube(xRight, y - 0.08f, z);
-                border.size = PLATFORM_SIZE * 1.1f;
-                border.modelRotationX = 0;
-                border.drawWithRotation(vpMatrix, edgeGlow);
+                drawSlab(vpMatrix, xRight, y - 0.08f, z, PLATFORM_SIZE * 1.1f, 0f, edgeGlow);
 
                 // Memory hint outline
                 if (showingMemoryHint && memoryHintAlpha > 0) {
@@ -195,28 +294,20 @@ public class PlatformGlass {
         float time = android.os.SystemClock.uptimeMillis() / 1000f;
         float pulse = (float) Math.sin(time * 4f) * 0.15f + 0.85f;
 
-        float[] safeColor = {0.2f, 0.6f, 1.0f, 0.7f * alpha * pulse};    // Blue for safe
-        float[] unsafeColor = {0.7f, 0.2f, 0.9f, 0.7f * alpha * pulse};  // Purple for unsafe
-
-        float[] outlineColor = isSafe ? safeColor : unsafeColor;
+        float outlineAlpha = 0.7f * alpha * pulse;
+        if (isSafe) {
+            setColor(layerColor, 0.2f, 0.6f, 1.0f, outlineAlpha);  // Blue for safe
+        } else {
+            setColor(layerColor, 0.7f, 0.2f, 0.9f, outlineAlpha);  // Purple for unsafe
+        }
 
         // Draw multiple outline layers for glow effect
-        for (int i = 0; i < 3; i++) {
+        for (int i = 0; i < outlineLayers; i++) {
             float offsetY = 0.15f + i * 0.1f;
             float scale = 1.3f + i * 0.15f;
-            float layerAlpha = outlineColor[3] * (1.0f - i * 0.3f);
-
-            float[] layerColor = {
-                    outlineColor[0],
-                    outlineColor[1],
-                    outlineColor[2],
-                    layerAlpha
-            };
-
-            Cube outline = new Cube(x, y + offsetY, z);
-            outline.size = PLATFORM_SIZE * scale;
-            outline.modelRotationX = 0;
-            outline.drawWithRotation(vpMatrix, layerColor);
+            layerColor[3] = outlineAlpha * (1.0f - i * 0.3f);
+
+            drawSlab(vpMatrix, x, y + offsetY, z, PLATFORM_SIZE * scale, 0f, layerColor);
         }
     }
 
@@ -230,42 +321,45 @@ public class PlatformGlass {
         float g = 0.6f - progress * 0.5f;  // Loses green
         float b = 0.9f - progress * 0.3f;  // Slightly loses blue
 
-        float[] breakColor = {r, g, b, alpha};
+        setColor(breakColor, r, g, b, alpha);
 
         // Add magical particle trail effect
-        float[] trailColor = {0.9f, 0.4f, 0.9f, alpha * 0.3f}; // Purple trail
+        setColor(trailColor, 0.9f, 0.4f, 0.9f, alpha * 0.3f); // Purple trail
 
         float spread = progress * 0.8f;
         float pieceSize = PLATFORM_SIZE * 0.4f;
         float offset = PLATFORM_SIZE * 0.25f;
 
-        float[][] pieceOffsets = {
-                {-offset, 0, -offset},
-                {offset, 0, -offset},
-                {-offset, 0, offset},
-                {offset, 0, offset}
-        };
-
-        float[] rotationMultipliers = {1.2f, 0.8f, 1.5f, 0.9f};
-
         for (int i = 0; i < 4; i++) {
-            float px = baseX + pieceOffsets[i][0] * (1 + spread);
-            float py = baseY + pieceOffsets[i][1];
-            float pz = baseZ + pieceOffsets[i][2] * (1 + spread);
+            float px = baseX + PIECE_OFFSETS[i][0] * offset * (1 + spread);
+            float py = baseY + PIECE_OFFSETS[i][1] * offset;
+            float pz = baseZ + PIECE_OFFSETS[i][2] * offset * (1 + spread);
 
             // Main shattered piece
-            Cube c = new Cube(px, py, pz);
-            c.size = pieceSize;
-            c.modelRotationX = rotation * rotationMultipliers[i];
-            c.drawWithRotation(vpMatrix, breakColor);
+            drawSlab(vpMatrix, px, py, pz, pieceSize, rotation * ROTATION_MULTIPLIERS[i], breakColor);
 
             // Magical trail effect behind each piece
-            if (progress > 0.2f) {
-                Cube trail = new Cube(px, py + 0.2f, pz - 0.3f);
-                trail.size = pieceSize * 0.7f;
-                trail.modelRotationX = rotation * rotationMultipliers[i] * 0.5f;
-                trail.drawWithRotation(vpMatrix, trailColor);
+            if (shardTrails && progress > 0.2f) {
+                drawSlab(vpMatrix, px, py + 0.2f, pz - 0.3f, pieceSize * 0.7f,
+                        rotation * ROTATION_MULTIPLIERS[i] * 0.5f, trailColor);
             }
         }
     }
+
+    private static void drawSlab(float[] vpMatrix, float x, float y, float z, float size,
+                                 float rotationX, float[] color) {
+        drawCube.x = x;
+        drawCube.y = y;
+        drawCube.z = z;
+        drawCube.size = size;
+        drawCube.modelRotationX = rotationX;
+        drawCube.drawWithRotation(vpMatrix, color);
+    }
+
+    private static void setColor(float[] out, float r, float g, float b, float a) {
+        out[0] = r;
+        out[1] = g;
+        out[2] = b;
+        out[3] = a;
+    }
 }
\ No newline at end of file
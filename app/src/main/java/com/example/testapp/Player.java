@@ -1,6 +1,6 @@
 package com.example.testapp;
 
-import android.opengl.GLES20;
+import android.opengl.Matrix;
 
 public class Player {
 
@@ -10,8 +10,13 @@ public class Player {
     private static final float POSITION_EPSILON = 0.01f;
     private static final float PLAYER_SIZE = 0.4f;
 
+    // Simulation state, advanced once per fixed step
     public float x, y, z;
 
+    // State before the last step, and the blend of both shown this frame
+    private float prevX, prevY, prevZ;
+    public float renderX, renderY, renderZ;
+
     private float targetX, targetY, targetZ;
     private volatile boolean jumping = false;
     private volatile boolean falling = false;
@@ -19,6 +24,27 @@ public class Player {
     // Save start position to reset after wrong step
     private float startX, startY, startZ;
 
+    // Wizard colours
+    private static final float[] ROBE_COLOR = {0.25f, 0.2f, 0.45f, 1f};
+    private static final float[] TRIM_COLOR = {0.1f, 0.1f, 0.15f, 1f};
+    private static final float[] SHOULDER_COLOR = {0.2f, 0.15f, 0.4f, 1f};
+    private static final float[] BELT_COLOR = {0.7f, 0.6f, 0.2f, 1f};
+    private static final float[] SLEEVE_COLOR = {0.22f, 0.18f, 0.42f, 1f};
+    private static final float[] SKIN_COLOR = {0.9f, 0.75f, 0.6f, 1f};
+    private static final float[] HAT_COLOR = {0.2f, 0.15f, 0.35f, 1f};
+
+    // Robe, trim, belt, sleeves, hands, neck, head and hat baked in model space (origin = x, y, z)
+    private static final int WIZARD_PART_COUNT = 17;
+    private static final StaticMesh wizardMesh = bakeWizard();
+
+    // Draw scratch, reused every frame (GL thread only)
+    private final Cube partCube = new Cube(0f, 0f, 0f);
+    private final float[] starColor = {1f, 0.9f, 0.3f, 1f};
+    private final float[] wizardMatrix = new float[16];
+    private final float[] wizardMVPMatrix = new float[16];
+    private final float[] starLocal = new float[16];
+    private final float[] starModel = new float[16];
+
     public Player(float startX, float startY, float startZ) {
         this.startX = startX;
         this.startY = startY;
@@ -31,6 +57,7 @@ public class Player {
         targetX = x;
         targetY = y;
         targetZ = z;
+        snapRenderState();
     }
 
     public boolean isJumping() {
@@ -67,6 +94,7 @@ public class Player {
         targetX = x;
         targetY = y;
         targetZ = z;
+        snapRenderState();
     }
 
     public void respawnToStart(float newStartZ) {
@@ -74,7 +102,20 @@ public class Player {
         respawn();
     }
 
+    /** Move along z with everything else (endless rebase); nothing visibly changes. */
+    public void shiftZ(float dz) {
+        z += dz;
+        prevZ += dz;
+        targetZ += dz;
+        startZ += dz;
+    }
+
+    /** One fixed simulation step (GameLogic.SIM_STEP). */
     public void update() {
+        prevX = x;
+        prevY = y;
+        prevZ = z;
+
         if (jumping) {
             float dx = targetX - x;
             float dy = targetY - y;
@@ -99,156 +140,130 @@ public class Player {
         }
     }
 
+    /** Blend the last two steps for rendering; alpha in [0, 1) is the progress into the next step. */
+    public void interpolate(float alpha) {
+        renderX = prevX + (x - prevX) * alpha;
+        renderY = prevY + (y - prevY) * alpha;
+        renderZ = prevZ + (z - prevZ) * alpha;
+    }
+
+    /** Copy the simulation state of another player, for a render snapshot. */
+    public void copyFrom(Player src) {
+        x = src.x;
+        y = src.y;
+        z = src.z;
+        prevX = src.prevX;
+        prevY = src.prevY;
+        prevZ = src.prevZ;
+        jumping = src.jumping;
+        falling = src.falling;
+    }
+
+    // Teleports must not be interpolated from the old position
+    private void snapRenderState() {
+        prevX = renderX = x;
+        prevY = renderY = y;
+        prevZ = renderZ = z;
+    }
+
     public void draw(float[] vpMatrix) {
         float time = android.os.SystemClock.uptimeMillis() / 1000f;
         float bobAmount = falling ? 0f : (float) Math.sin(time * 3f) * 0.03f;
         float starPulse = (float) Math.sin(time * 4f) * 0.15f + 0.85f;
 
-        // Create transformation matrix for the entire wizard
-        float[] wizardMatrix = new float[16];
-        float[] finalVPMatrix = new float[16];
-
+        // One model matrix for the whole wizard: position + bob, or spin + tilt when falling
+        Matrix.setIdentityM(wizardMatrix, 0);
+        Matrix.translateM(wizardMatrix, 0, renderX, renderY + bobAmount, renderZ);
         if (falling) {
-            // Apply rotation to entire wizard when falling
-            android.opengl.Matrix.setIdentityM(wizardMatrix, 0);
-            android.opengl.Matrix.translateM(wizardMatrix, 0, x, y, z);
-            android.opengl.Matrix.rotateM(wizardMatrix, 0, time * 300f, 0f, 1f, 0f); // Spin
-            android.opengl.Matrix.rotateM(wizardMatrix, 0, 80f, 1f, 0f, 0f); // Tilt
-
-            // Create modified VP matrix that includes wizard transform
-            float[] tempMatrix = new float[16];
-            android.opengl.Matrix.setIdentityM(tempMatrix, 0);
-            android.opengl.Matrix.translateM(tempMatrix, 0, -x, -y, -z); // Undo position
-            android.opengl.Matrix.multiplyMM(finalVPMatrix, 0, wizardMatrix, 0, tempMatrix, 0);
-            android.opengl.Matrix.multiplyMM(wizardMatrix, 0, vpMatrix, 0, finalVPMatrix, 0);
-            finalVPMatrix = wizardMatrix;
-        } else {
-            finalVPMatrix = vpMatrix;
+            Matrix.rotateM(wizardMatrix, 0, time * 300f, 0f, 1f, 0f); // Spin
+            Matrix.rotateM(wizardMatrix, 0, 80f, 1f, 0f, 0f); // Tilt
         }
+        Matrix.multiplyMM(wizardMVPMatrix, 0, vpMatrix, 0, wizardMatrix, 0);
+
+        // Drawn immediately (outside the queue), so set the opaque state ourselves
+        RenderQueue.beginOpaquePass();
+        wizardMesh.draw(wizardMVPMatrix);
+
+        // Stars on back of hat (rotating, so they stay dynamic)
+        starColor[3] = starPulse;
 
-        // Draw wizard using original Cube-based method
-        float[] robeColor = {0.25f, 0.2f, 0.45f, 1f};
+        drawStar(vpMatrix, -0.2f, 1.7f, -0.35f, 0.12f, time * 80f);
+        drawStar(vpMatrix, 0.15f, 2.0f, -0.3f, 0.1f, -time * 100f);
+        drawStar(vpMatrix, 0f, 2.35f, -0.2f, 0.08f, time * 120f);
+    }
+
+    // Offsets and sizes are in units of PLAYER_SIZE, relative to the wizard origin
+    private void drawStar(float[] vpMatrix, float offX, float offY, float offZ, float size,
+                          float rotation) {
+        Matrix.setIdentityM(starLocal, 0);
+        Matrix.translateM(starLocal, 0, PLAYER_SIZE * offX, PLAYER_SIZE * offY, PLAYER_SIZE * offZ);
+        Matrix.rotateM(starLocal, 0, rotation, 1f, 0f, 0f);
+        Matrix.scaleM(starLocal, 0, PLAYER_SIZE * size, Cube.GLASS_THICKNESS, PLAYER_SIZE * size);
+        Matrix.multiplyMM(starModel, 0, wizardMatrix, 0, starLocal, 0);
+        partCube.drawWithModel(vpMatrix, starModel, starColor);
+    }
+
+    // ------------------------
+    // Wizard mesh (shared by all players; GL lifecycle mirrors Cube)
+    // ------------------------
+    public static void createBuffers() {
+        wizardMesh.upload();
+    }
+
+    public static void invalidateBuffers() {
+        wizardMesh.invalidate();
+    }
+
+    private static StaticMesh bakeWizard() {
+        StaticMesh mesh = new StaticMesh(WIZARD_PART_COUNT);
 
         // Lower robe
-        Cube robeLower = new Cube(x, y + PLAYER_SIZE * 0.25f + bobAmount, z);
-        robeLower.size = PLAYER_SIZE * 1.05f;
-        robeLower.modelRotationX = 0;
-        robeLower.draw(finalVPMatrix, robeColor);
+        addPart(mesh, 0f, 0.25f, 0f, 1.05f, ROBE_COLOR);
 
         // Bottom trim (black)
-        float[] bottomTrimColor = {0.1f, 0.1f, 0.15f, 1f};
-        Cube bottomTrim = new Cube(x, y + PLAYER_SIZE * 0.1f + bobAmount, z);
-        bottomTrim.size = PLAYER_SIZE * 1.15f;
-        bottomTrim.modelRotationX = 0;
-        bottomTrim.draw(finalVPMatrix, bottomTrimColor);
+        addPart(mesh, 0f, 0.1f, 0f, 1.15f, TRIM_COLOR);
 
         // Mid robe
-        Cube robeMid = new Cube(x, y + PLAYER_SIZE * 0.5f + bobAmount, z);
-        robeMid.size = PLAYER_SIZE * 1.0f;
-        robeMid.modelRotationX = 0;
-        robeMid.draw(finalVPMatrix, robeColor);
+        addPart(mesh, 0f, 0.5f, 0f, 1.0f, ROBE_COLOR);
 
         // Upper robe
-        Cube robeUpper = new Cube(x, y + PLAYER_SIZE * 0.75f + bobAmount, z);
-        robeUpper.size = PLAYER_SIZE * 0.95f;
-        robeUpper.modelRotationX = 0;
-        robeUpper.draw(finalVPMatrix, robeColor);
+        addPart(mesh, 0f, 0.75f, 0f, 0.95f, ROBE_COLOR);
 
         // Shoulders
-        float[] shoulderColor = {0.2f, 0.15f, 0.4f, 1f};
-        Cube shoulders = new Cube(x, y + PLAYER_SIZE * 0.95f + bobAmount, z);
-        shoulders.size = PLAYER_SIZE * 1.1f;
-        shoulders.modelRotationX = 0;
-        shoulders.draw(finalVPMatrix, shoulderColor);
+        addPart(mesh, 0f, 0.95f, 0f, 1.1f, SHOULDER_COLOR);
 
         // Collar (black)
-        float[] collarColor = {0.1f, 0.1f, 0.15f, 1f};
-        Cube collar = new Cube(x, y + PLAYER_SIZE * 1.0f + bobAmount, z);
-        collar.size = PLAYER_SIZE * 1.0f;
-        collar.modelRotationX = 0;
-        collar.draw(finalVPMatrix, collarColor);
+        addPart(mesh, 0f, 1.0f, 0f, 1.0f, TRIM_COLOR);
 
         // Belt (gold - middle trim)
-        float[] beltColor = {0.7f, 0.6f, 0.2f, 1f};
-        Cube belt = new Cube(x, y + PLAYER_SIZE * 0.6f + bobAmount, z);
-        belt.size = PLAYER_SIZE * 1.0f;
-        belt.modelRotationX = 0;
-        belt.draw(finalVPMatrix, beltColor);
+        addPart(mesh, 0f, 0.6f, 0f, 1.0f, BELT_COLOR);
 
         // Sleeves
-        float[] sleeveColor = {0.22f, 0.18f, 0.42f, 1f};
-        Cube leftSleeve = new Cube(x - PLAYER_SIZE * 0.55f, y + PLAYER_SIZE * 0.8f + bobAmount, z);
-        leftSleeve.size = PLAYER_SIZE * 0.35f;
-        leftSleeve.modelRotationX = 0;
-        leftSleeve.draw(finalVPMatrix, sleeveColor);
-
-        Cube rightSleeve = new Cube(x + PLAYER_SIZE * 0.55f, y + PLAYER_SIZE * 0.8f + bobAmount, z);
-        rightSleeve.size = PLAYER_SIZE * 0.35f;
-        rightSleeve.modelRotationX = 0;
-        rightSleeve.draw(finalVPMatrix, sleeveColor);
+        addPart(mesh, -0.55f, 0.8f, 0f, 0.35f, SLEEVE_COLOR);
+        addPart(mesh, 0.55f, 0.8f, 0f, 0.35f, SLEEVE_COLOR);
 
         // Hands
-        float[] handColor = {0.9f, 0.75f, 0.6f, 1f};
-        Cube leftHand = new Cube(x - PLAYER_SIZE * 0.7f, y + PLAYER_SIZE * 0.65f + bobAmount, z);
-        leftHand.size = PLAYER_SIZE * 0.3f;
-        leftHand.modelRotationX = 0;
-        leftHand.draw(finalVPMatrix, handColor);
-
-        Cube rightHand = new Cube(x + PLAYER_SIZE * 0.7f, y + PLAYER_SIZE * 0.65f + bobAmount, z);
-        rightHand.size = PLAYER_SIZE * 0.3f;
-        rightHand.modelRotationX = 0;
-        rightHand.draw(finalVPMatrix, handColor);
+        addPart(mesh, -0.7f, 0.65f, 0f, 0.3f, SKIN_COLOR);
+        addPart(mesh, 0.7f, 0.65f, 0f, 0.3f, SKIN_COLOR);
 
         // Neck and Head
-        Cube neck = new Cube(x, y + PLAYER_SIZE * 1.05f + bobAmount, z);
-        neck.size = PLAYER_SIZE * 0.5f;
-        neck.modelRotationX = 0;
-        neck.draw(finalVPMatrix, handColor);
-
-        Cube head = new Cube(x, y + PLAYER_SIZE * 1.3f + bobAmount, z);
-        head.size = PLAYER_SIZE * 0.6f;
-        head.modelRotationX = 0;
-        head.draw(finalVPMatrix, handColor);
+        addPart(mesh, 0f, 1.05f, 0f, 0.5f, SKIN_COLOR);
+        addPart(mesh, 0f, 1.3f, 0f, 0.6f, SKIN_COLOR);
 
         // Hat
-        float[] hatColor = {0.2f, 0.15f, 0.35f, 1f};
-        Cube hatBrim = new Cube(x, y + PLAYER_SIZE * 1.55f + bobAmount, z);
-        hatBrim.size = PLAYER_SIZE * 0.9f;
-        hatBrim.modelRotationX = 0;
-        hatBrim.draw(finalVPMatrix, hatColor);
-
-        Cube hatBase = new Cube(x, y + PLAYER_SIZE * 1.75f + bobAmount, z);
-        hatBase.size = PLAYER_SIZE * 0.7f;
-        hatBase.modelRotationX = 0;
-        hatBase.draw(finalVPMatrix, hatColor);
-
-        Cube hatMid = new Cube(x, y + PLAYER_SIZE * 2.0f + bobAmount, z);
-        hatMid.size = PLAYER_SIZE * 0.5f;
-        hatMid.modelRotationX = 0;
-        hatMid.draw(finalVPMatrix, hatColor);
-
-        Cube hatTop = new Cube(x, y + PLAYER_SIZE * 2.25f + bobAmount, z);
-        hatTop.size = PLAYER_SIZE * 0.3f;
-        hatTop.modelRotationX = 0;
-        hatTop.draw(finalVPMatrix, hatColor);
-
-        // Stars on back of hat (using drawWithRotation for sparkle effect)
-        float[] starColor = {1f, 0.9f, 0.3f, starPulse};
-
-        Cube star1 = new Cube(x - PLAYER_SIZE * 0.2f, y + PLAYER_SIZE * 1.7f + bobAmount, z - PLAYER_SIZE * 0.35f);
-        star1.size = PLAYER_SIZE * 0.12f;
-        star1.modelRotationX = time * 80f;
-        star1.drawWithRotation(finalVPMatrix, starColor);
-
-        Cube star2 = new Cube(x + PLAYER_SIZE * 0.15f, y + PLAYER_SIZE * 2.0f + bobAmount, z - PLAYER_SIZE * 0.3f);
-        star2.size = PLAYER_SIZE * 0.1f;
-        star2.modelRotationX = -time * 100f;
-        star2.drawWithRotation(finalVPMatrix, starColor);
-
-        Cube star3 = new Cube(x, y + PLAYER_SIZE * 2.35f + bobAmount, z - PLAYER_SIZE * 0.2f);
-        star3.size = PLAYER_SIZE * 0.08f;
-        star3.modelRotationX = time * 120f;
-        star3.drawWithRotation(finalVPMatrix, starColor);
+        addPart(mesh, 0f, 1.55f, 0f, 0.9f, HAT_COLOR);
+        addPart(mesh, 0f, 1.75f, 0f, 0.7f, HAT_COLOR);
+        addPart(mesh, 0f, 2.0f, 0f, 0.5f, HAT_COLOR);
+        addPart(mesh, 0f, 2.25f, 0f, 0.3f, HAT_COLOR);
+
+        return mesh;
+    }
+
+    // Same slab as Cube.draw: size x GLASS_THICKNESS x size, in units of PLAYER_SIZE
+    private static void addPart(StaticMesh mesh, float offX, float offY, float offZ, float size,
+                                float[] color) {
+        mesh.addBox(PLAYER_SIZE * offX, PLAYER_SIZE * offY, PLAYER_SIZE * offZ,
+                PLAYER_SIZE * size, Cube.GLASS_THICKNESS, PLAYER_SIZE * size, color);
     }
 
 }
\ No newline at end of file
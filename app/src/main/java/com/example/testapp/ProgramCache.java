@@ -0,0 +1,195 @@
+package com.example.testapp;
+
+import android.opengl.GLES20;
+import android.opengl.GLES30;
+import android.util.Log;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * On-disk cache of linked program binaries, so a cold start or a recreated EGL context can
+ * skip compiling and linking. Entries are keyed by a hash of both shader sources plus
+ * GL_RENDERER and GL_VERSION, so a driver update or a shader edit simply misses.
+ *
+ * ES 3.0 only (glGetProgramBinary / glProgramBinary); OES_get_program_binary has no Java
+ * binding in android.opengl, so ES 2.0 contexts always compile from source. A binary the
+ * driver rejects is deleted and the caller falls back to compiling.
+ *
+ * GL thread only.
+ */
+public class ProgramCache {
+    private static final String TAG = "ProgramCache";
+
+    private static final int FILE_MAGIC = 0x50524f47; // "PROG"
+    private static final int FILE_VERSION = 1;
+    private static final int HEADER_BYTES = 16; // magic, version, format, length
+
+    private final File directory;
+    private boolean enabled = false;
+    private String driverKey = "";
+
+    // Counters for the current process, for startup diagnostics
+    private int hits = 0;
+    private int misses = 0;
+
+    public ProgramCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Check the current context; call once per context before any load/store.
+     * Disables the cache on ES 2.0 or when the driver offers no binary formats.
+     */
+    public void begin(int glesMajorVersion) {
+        enabled = false;
+        if (glesMajorVersion < 3 || directory == null) return;
+
+        int[] formats = new int[1];
+        Gl.get().glGetIntegerv(GLES30.GL_NUM_PROGRAM_BINARY_FORMATS, formats, 0);
+        if (formats[0] <= 0) return;
+
+        driverKey = Gl.get().glGetString(GLES20.GL_RENDERER) + "|" + Gl.get().glGetString(GLES20.GL_VERSION);
+        enabled = directory.isDirectory() || directory.mkdirs();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Linked program from a cached binary, or -1 on a miss or a rejected binary. */
+    public int load(String vertexSource, String fragmentSource) {
+        if (!enabled) return -1;
+
+        File file = fileFor(vertexSource, fragmentSource);
+        if (!file.isFile()) {
+            misses++;
+            return -1;
+        }
+
+        int format;
+        byte[] binary;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                throw new IOException("bad header");
+            }
+            format = in.readInt();
+            int length = in.readInt();
+            // Checked before allocating: a corrupt length would otherwise throw or exhaust the heap
+            if (length <= 0 || length != file.length() - HEADER_BYTES) {
+                throw new IOException("bad length " + length);
+            }
+            binary = new byte[length];
+            in.readFully(binary);
+        } catch (IOException e) {
+            Log.w(TAG, "Dropping unreadable cache entry " + file.getName() + ": " + e.getMessage());
+            file.delete();
+            misses++;
+            return -1;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(binary.length).order(ByteOrder.nativeOrder());
+        buffer.put(binary).position(0);
+
+        int program = Gl.get().glCreateProgram();
+        Gl.get().glProgramBinary(program, format, buffer, binary.length);
+
+        int[] linkStatus = new int[1];
+        Gl.get().glGetProgramiv(program, GLES20.GL_LINK_STATUS, linkStatus, 0);
+        if (linkStatus[0] == 0) {
+            // Typically a driver update that kept the same version string
+            Log.w(TAG, "Driver rejected cached binary " + file.getName());
+            Gl.get().glDeleteProgram(program);
+            file.delete();
+            misses++;
+            return -1;
+        }
+
+        hits++;
+        return program;
+    }
+
+    /**
+     * Ask the driver to keep the binary retrievable. Call between glCreateProgram and
+     * glLinkProgram for programs that will be stored.
+     */
+    public void prepareForLink(int program) {
+        if (!enabled) return;
+        Gl.get().glProgramParameteri(program, GLES30.GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GLES20.GL_TRUE);
+    }
+
+    /** Save a freshly linked program. Failures are logged and otherwise ignored. */
+    public void store(int program, String vertexSource, String fragmentSource) {
+        if (!enabled) return;
+
+        int[] length = new int[1];
+        Gl.get().glGetProgramiv(program, GLES30.GL_PROGRAM_BINARY_LENGTH, length, 0);
+        if (length[0] <= 0) return;
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(length[0]).order(ByteOrder.nativeOrder());
+        int[] written = new int[1];
+        int[] format = new int[1];
+        Gl.get().glGetProgramBinary(program, length[0], written, 0, format, 0, buffer);
+        if (written[0] <= 0) return;
+
+        byte[] binary = new byte[written[0]];
+        buffer.position(0);
+        buffer.get(binary);
+
+        // Write to a temp file and rename, so a crash never leaves a truncated entry
+        File file = fileFor(vertexSource, fragmentSource);
+        File temp = new File(directory, file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(temp))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeInt(format[0]);
+            out.writeInt(binary.length);
+            out.write(binary);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not write " + temp.getName() + ": " + e.getMessage());
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+        }
+    }
+
+    public int getHits() { return hits; }
+    public int getMisses() { return misses; }
+
+    private File fileFor(String vertexSource, String fragmentSource) {
+        return new File(directory, "prog_" + hash(vertexSource, fragmentSource) + ".bin");
+    }
+
+    private String hash(String vertexSource, String fragmentSource) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(driverKey.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(vertexSource.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(fragmentSource.getBytes(StandardCharsets.UTF_8));
+
+            byte[] bytes = digest.digest();
+            StringBuilder hex = new StringBuilder(40);
+            for (int i = 0; i < 20; i++) { // 160 bits is plenty for a file name
+                hex.append(Character.forDigit((bytes[i] >> 4) & 0xf, 16));
+                hex.append(Character.forDigit(bytes[i] & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on Android; fall back to a weaker key rather than failing
+            return Integer.toHexString((driverKey + vertexSource + fragmentSource).hashCode());
+        }
+    }
+}
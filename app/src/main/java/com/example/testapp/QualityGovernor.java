@@ -0,0 +1,121 @@
+package com.example.testapp;
+
+import android.util.Log;
+
+import java.util.Arrays;
+
+/**
+ * Picks a scene quality tier from rolling frame-time percentiles.
+ *
+ * Frame intervals go into a ring of the last WINDOW_FRAMES frames. Every EVALUATE_EVERY
+ * frames the p50/p95 are computed: a p95 over DOWN_P95_MS drops one tier at once; a p95
+ * under UP_P95_MS for UP_STABLE_EVALUATIONS evaluations in a row raises one tier. After a
+ * drop, the next raise needs twice as many good evaluations (up to a cap), so a device
+ * that sits on the edge of the budget doesn't flip between tiers. Every transition is
+ * logged. What a tier means for the scene is up to the renderer.
+ *
+ * GL thread only.
+ */
+public class QualityGovernor {
+    private static final String TAG = "QualityGovernor";
+
+    public static final int TIER_LOW = 0;
+    public static final int TIER_MEDIUM = 1;
+    public static final int TIER_HIGH = 2;
+    private static final String[] TIER_NAMES = {"LOW", "MEDIUM", "HIGH"};
+
+    private static final float BUDGET_MS = 1000f / 60f;
+    private static final float DOWN_P95_MS = BUDGET_MS * 1.25f; // ~20.8 ms
+    private static final float UP_P95_MS = BUDGET_MS * 1.05f;   // ~17.5 ms
+    private static final int WINDOW_FRAMES = 120;
+    private static final int EVALUATE_EVERY = 60;
+    private static final int UP_STABLE_EVALUATIONS = 3;
+    private static final int MAX_UP_STABLE_EVALUATIONS = 24;
+    private static final float MAX_SAMPLE_MS = 250f; // longer gaps are pauses, not load
+
+    private final float[] samples = new float[WINDOW_FRAMES];
+    private final float[] sorted = new float[WINDOW_FRAMES];
+    private int sampleCount = 0;
+    private int sampleIndex = 0;
+    private int framesSinceEvaluation = 0;
+    private long lastFrameNanos = 0;
+
+    private int tier = TIER_HIGH;
+    private int goodEvaluations = 0;
+    private int requiredGoodEvaluations = UP_STABLE_EVALUATIONS;
+
+    private float lastP50 = 0f;
+    private float lastP95 = 0f;
+    private int transitionCount = 0;
+
+    /** Feed one frame; returns true when the tier changed on this frame. */
+    public boolean onFrame(long frameTimeNanos) {
+        if (lastFrameNanos != 0) {
+            float ms = (frameTimeNanos - lastFrameNanos) / 1_000_000f;
+            if (ms > 0f && ms < MAX_SAMPLE_MS) {
+                samples[sampleIndex] = ms;
+                sampleIndex = (sampleIndex + 1) % WINDOW_FRAMES;
+                if (sampleCount < WINDOW_FRAMES) sampleCount++;
+                framesSinceEvaluation++;
+            }
+        }
+        lastFrameNanos = frameTimeNanos;
+
+        if (sampleCount < WINDOW_FRAMES || framesSinceEvaluation < EVALUATE_EVERY) {
+            return false;
+        }
+        framesSinceEvaluation = 0;
+        return evaluate();
+    }
+
+    private boolean evaluate() {
+        System.arraycopy(samples, 0, sorted, 0, WINDOW_FRAMES);
+        Arrays.sort(sorted);
+        lastP50 = sorted[WINDOW_FRAMES / 2];
+        lastP95 = sorted[(WINDOW_FRAMES * 95) / 100];
+
+        if (lastP95 > DOWN_P95_MS) {
+            goodEvaluations = 0;
+            if (tier > TIER_LOW) {
+                requiredGoodEvaluations = Math.min(requiredGoodEvaluations * 2, MAX_UP_STABLE_EVALUATIONS);
+                return setTier(tier - 1, "p95 over budget");
+            }
+        } else if (lastP95 < UP_P95_MS) {
+            goodEvaluations++;
+            if (tier < TIER_HIGH && goodEvaluations >= requiredGoodEvaluations) {
+                goodEvaluations = 0;
+                return setTier(tier + 1, "p95 within budget for " + requiredGoodEvaluations + " evaluations");
+            }
+        } else {
+            goodEvaluations = 0;
+        }
+        return false;
+    }
+
+    private boolean setTier(int newTier, String reason) {
+        Log.i(TAG, "Quality " + TIER_NAMES[tier] + " -> " + TIER_NAMES[newTier] + ": " + reason
+                + " (p50 " + lastP50 + " ms, p95 " + lastP95 + " ms)");
+        tier = newTier;
+        transitionCount++;
+
+        // Samples from the old tier say nothing about the new one
+        sampleCount = 0;
+        sampleIndex = 0;
+        framesSinceEvaluation = 0;
+        return true;
+    }
+
+    /** Drop history, e.g. after a pause, so stale frames don't drive a change. */
+    public void resetWindow() {
+        sampleCount = 0;
+        sampleIndex = 0;
+        framesSinceEvaluation = 0;
+        lastFrameNanos = 0;
+    }
+
+    public int getTier() { return tier; }
+    public static String getTierName(int tier) { return TIER_NAMES[tier]; }
+    public float getLastP50() { return lastP50; }
+    public float getLastP95() { return lastP95; }
+    public int getTransitionCount() { return transitionCount; }
+}
@@ -0,0 +1,485 @@
+package com.example.testapp;
+
+import android.opengl.GLES20;
+
+import java.nio.Buffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * GLApi that talks to no driver: every call is appended to a command list that can be
+ * inspected or counted, e.g. to check that one frame of a scene stays within a draw-call
+ * and state-change budget on a machine without a GPU.
+ *
+ * Enough behaviour is faked for the renderer to initialise: object names count up from 1,
+ * shaders compile and programs link, attribute/uniform locations are stable per program
+ * and name, framebuffers are complete, and no program binary formats are offered.
+ * Integer arguments are kept with each command; float and buffer contents are not. With
+ * setKeepCommands(false) only the per-kind counts are kept, and recording allocates
+ * nothing, for allocation-budget checks of the frame loop.
+ *
+ * Not thread-safe; record from one thread (the one standing in for the GL thread).
+ */
+public class RecordingGL implements GLApi {
+
+    public enum Kind {
+        DRAW,     // glDraw*
+        STATE,    // enable/disable, blend/depth, binds, viewport, attribute setup
+        UNIFORM,  // glUniform*
+        UPLOAD,   // buffer and texture data
+        CLEAR,    // glClear
+        RESOURCE, // create/delete/compile/link
+        QUERY     // glGet*, glCheckFramebufferStatus
+    }
+
+    public static final class Command {
+        public final Kind kind;
+        public final String name;
+        public final int[] args;
+
+        Command(Kind kind, String name, int[] args) {
+            this.kind = kind;
+            this.name = name;
+            this.args = args;
+        }
+
+        @Override
+        public String toString() {
+            return name + Arrays.toString(args);
+        }
+    }
+
+    private final ArrayList<Command> commands = new ArrayList<>();
+    private final int[] kindCounts = new int[Kind.values().length];
+    private final HashMap<String, Integer> locations = new HashMap<>();
+    private final HashMap<String, Integer> locationCounts = new HashMap<>();
+    private final String version;
+    private int nextName = 1;
+    private boolean keepCommands = true;
+
+    /** Reports an ES 3.0 context, so the instanced and GPU-animated paths are taken. */
+    public RecordingGL() {
+        this("OpenGL ES 3.0 RecordingGL");
+    }
+
+    /** glVersion is what glGetString(GL_VERSION) returns, e.g. "OpenGL ES 2.0" for the fallbacks. */
+    public RecordingGL(String glVersion) {
+        this.version = glVersion;
+    }
+
+    // ------------------------
+    // Inspection
+    // ------------------------
+    public List<Command> getCommands() {
+        return commands;
+    }
+
+    /** Off: count calls per kind only; getCommands() and count(String) then stay empty. */
+    public void setKeepCommands(boolean keep) {
+        keepCommands = keep;
+    }
+
+    public int count(Kind kind) {
+        return kindCounts[kind.ordinal()];
+    }
+
+    public int count(String name) {
+        int n = 0;
+        for (int i = 0; i < commands.size(); i++) {
+            if (commands.get(i).name.equals(name)) n++;
+        }
+        return n;
+    }
+
+    /** Forget recorded commands (e.g. after setup, before the frame under test); names stay valid. */
+    public void clear() {
+        commands.clear();
+        Arrays.fill(kindCounts, 0);
+    }
+
+    // One overload per argument count, so nothing is allocated unless commands are kept
+    private void record(Kind kind, String name) {
+        kindCounts[kind.ordinal()]++;
+        if (keepCommands) commands.add(new Command(kind, name, new int[0]));
+    }
+
+    private void record(Kind kind, String name, int a) {
+        kindCounts[kind.ordinal()]++;
+        if (keepCommands) commands.add(new Command(kind, name, new int[]{a}));
+    }
+
+    private void record(Kind kind, String name, int a, int b) {
+        kindCounts[kind.ordinal()]++;
+        if (keepCommands) commands.add(new Command(kind, name, new int[]{a, b}));
+    }
+
+    private void record(Kind kind, String name, int a, int b, int c) {
+        kindCounts[kind.ordinal()]++;
+        if (keepCommands) commands.add(new Command(kind, name, new int[]{a, b, c}));
+    }
+
+    private void record(Kind kind, String name, int a, int b, int c, int d) {
+        kindCounts[kind.ordinal()]++;
+        if (keepCommands) commands.add(new Command(kind, name, new int[]{a, b, c, d}));
+    }
+
+    private void fillNames(int[] names, int offset, int n) {
+        for (int i = 0; i < n; i++) {
+            names[offset + i] = nextName++;
+        }
+    }
+
+    // Numbered from 0 per program, attributes and uniforms apart, as a driver would
+    private int locationOf(int program, String kind, String name) {
+        String key = program + kind + "/" + name;
+        Integer location = locations.get(key);
+        if (location == null) {
+            String counter = program + kind;
+            Integer next = locationCounts.get(counter);
+            location = next != null ? next : 0;
+            locationCounts.put(counter, location + 1);
+            locations.put(key, location);
+        }
+        return location;
+    }
+
+    // ------------------------
+    // GLApi
+    // ------------------------
+    @Override
+    public void glEnable(int cap) {
+        record(Kind.STATE, "glEnable", cap);
+    }
+
+    @Override
+    public void glDisable(int cap) {
+        record(Kind.STATE, "glDisable", cap);
+    }
+
+    @Override
+    public void glBlendFunc(int sfactor, int dfactor) {
+        record(Kind.STATE, "glBlendFunc", sfactor, dfactor);
+    }
+
+    @Override
+    public void glDepthFunc(int func) {
+        record(Kind.STATE, "glDepthFunc", func);
+    }
+
+    @Override
+    public void glDepthMask(boolean flag) {
+        record(Kind.STATE, "glDepthMask");
+    }
+
+    @Override
+    public void glViewport(int x, int y, int width, int height) {
+        record(Kind.STATE, "glViewport", x, y, width, height);
+    }
+
+    @Override
+    public void glClearColor(float red, float green, float blue, float alpha) {
+        record(Kind.STATE, "glClearColor");
+    }
+
+    @Override
+    public void glClear(int mask) {
+        record(Kind.CLEAR, "glClear", mask);
+    }
+
+    @Override
+    public void glUseProgram(int program) {
+        record(Kind.STATE, "glUseProgram", program);
+    }
+
+    @Override
+    public void glActiveTexture(int texture) {
+        record(Kind.STATE, "glActiveTexture", texture);
+    }
+
+    @Override
+    public void glGenBuffers(int n, int[] buffers, int offset) {
+        record(Kind.RESOURCE, "glGenBuffers", n);
+        fillNames(buffers, offset, n);
+    }
+
+    @Override
+    public void glDeleteBuffers(int n, int[] buffers, int offset) {
+        record(Kind.RESOURCE, "glDeleteBuffers", n);
+    }
+
+    @Override
+    public void glBindBuffer(int target, int buffer) {
+        record(Kind.STATE, "glBindBuffer", target, buffer);
+    }
+
+    @Override
+    public void glBufferData(int target, int size, Buffer data, int usage) {
+        record(Kind.UPLOAD, "glBufferData", target, size, usage);
+    }
+
+    @Override
+    public void glBufferSubData(int target, int offset, int size, Buffer data) {
+        record(Kind.UPLOAD, "glBufferSubData", target, offset, size);
+    }
+
+    @Override
+    public void glEnableVertexAttribArray(int index) {
+        record(Kind.STATE, "glEnableVertexAttribArray", index);
+    }
+
+    @Override
+    public void glDisableVertexAttribArray(int index) {
+        record(Kind.STATE, "glDisableVertexAttribArray", index);
+    }
+
+    @Override
+    public void glVertexAttribPointer(int index, int size, int type, boolean normalized, int stride,
+                                      int offset) {
+        record(Kind.STATE, "glVertexAttribPointer", index, size, type, stride);
+    }
+
+    @Override
+    public void glVertexAttribDivisor(int index, int divisor) {
+        record(Kind.STATE, "glVertexAttribDivisor", index, divisor);
+    }
+
+    @Override
+    public void glDrawArrays(int mode, int first, int count) {
+        record(Kind.DRAW, "glDrawArrays", mode, first, count);
+    }
+
+    @Override
+    public void glDrawElements(int mode, int count, int type, int offset) {
+        record(Kind.DRAW, "glDrawElements", mode, count, type, offset);
+    }
+
+    @Override
+    public void glDrawArraysInstanced(int mode, int first, int count, int instanceCount) {
+        record(Kind.DRAW, "glDrawArraysInstanced", mode, first, count, instanceCount);
+    }
+
+    @Override
+    public void glUniform1f(int location, float x) {
+        record(Kind.UNIFORM, "glUniform1f", location);
+    }
+
+    @Override
+    public void glUniform1i(int location, int x) {
+        record(Kind.UNIFORM, "glUniform1i", location, x);
+    }
+
+    @Override
+    public void glUniform1fv(int location, int count, float[] v, int offset) {
+        record(Kind.UNIFORM, "glUniform1fv", location, count);
+    }
+
+    @Override
+    public void glUniform2f(int location, float x, float y) {
+        record(Kind.UNIFORM, "glUniform2f", location);
+    }
+
+    @Override
+    public void glUniform3f(int location, float x, float y, float z) {
+        record(Kind.UNIFORM, "glUniform3f", location);
+    }
+
+    @Override
+    public void glUniform4fv(int location, int count, float[] v, int offset) {
+        record(Kind.UNIFORM, "glUniform4fv", location, count);
+    }
+
+    @Override
+    public void glUniformMatrix4fv(int location, int count, boolean transpose, float[] value, int offset) {
+        record(Kind.UNIFORM, "glUniformMatrix4fv", location, count);
+    }
+
+    @Override
+    public int glCreateShader(int type) {
+        record(Kind.RESOURCE, "glCreateShader", type);
+        return nextName++;
+    }
+
+    @Override
+    public void glShaderSource(int shader, String source) {
+        record(Kind.RESOURCE, "glShaderSource", shader);
+    }
+
+    @Override
+    public void glCompileShader(int shader) {
+        record(Kind.RESOURCE, "glCompileShader", shader);
+    }
+
+    @Override
+    public void glGetShaderiv(int shader, int pname, int[] params, int offset) {
+        record(Kind.QUERY, "glGetShaderiv", shader, pname);
+        params[offset] = pname == GLES20.GL_COMPILE_STATUS ? GLES20.GL_TRUE : 0;
+    }
+
+    @Override
+    public String glGetShaderInfoLog(int shader) {
+        record(Kind.QUERY, "glGetShaderInfoLog", shader);
+        return "";
+    }
+
+    @Override
+    public void glDeleteShader(int shader) {
+        record(Kind.RESOURCE, "glDeleteShader", shader);
+    }
+
+    @Override
+    public int glCreateProgram() {
+        record(Kind.RESOURCE, "glCreateProgram");
+        return nextName++;
+    }
+
+    @Override
+    public void glAttachShader(int program, int shader) {
+        record(Kind.RESOURCE, "glAttachShader", program, shader);
+    }
+
+    @Override
+    public void glLinkProgram(int program) {
+        record(Kind.RESOURCE, "glLinkProgram", program);
+    }
+
+    @Override
+    public void glGetProgramiv(int program, int pname, int[] params, int offset) {
+        record(Kind.QUERY, "glGetProgramiv", program, pname);
+        params[offset] = pname == GLES20.GL_LINK_STATUS ? GLES20.GL_TRUE : 0;
+    }
+
+    @Override
+    public String glGetProgramInfoLog(int program) {
+        record(Kind.QUERY, "glGetProgramInfoLog", program);
+        return "";
+    }
+
+    @Override
+    public void glDeleteProgram(int program) {
+        record(Kind.RESOURCE, "glDeleteProgram", program);
+    }
+
+    @Override
+    public int glGetAttribLocation(int program, String name) {
+        record(Kind.QUERY, "glGetAttribLocation", program);
+        return locationOf(program, "/a", name);
+    }
+
+    @Override
+    public int glGetUniformLocation(int program, String name) {
+        record(Kind.QUERY, "glGetUniformLocation", program);
+        return locationOf(program, "/u", name);
+    }
+
+    @Override
+    public void glProgramParameteri(int program, int pname, int value) {
+        record(Kind.RESOURCE, "glProgramParameteri", program, pname, value);
+    }
+
+    @Override
+    public void glProgramBinary(int program, int binaryFormat, Buffer binary, int length) {
+        record(Kind.RESOURCE, "glProgramBinary", program, binaryFormat, length);
+    }
+
+    @Override
+    public void glGetProgramBinary(int program, int bufSize, int[] length, int lengthOffset,
+                                   int[] binaryFormat, int binaryFormatOffset, Buffer binary) {
+        record(Kind.QUERY, "glGetProgramBinary", program, bufSize);
+        length[lengthOffset] = 0;
+    }
+
+    @Override
+    public void glGenTextures(int n, int[] textures, int offset) {
+        record(Kind.RESOURCE, "glGenTextures", n);
+        fillNames(textures, offset, n);
+    }
+
+    @Override
+    public void glDeleteTextures(int n, int[] textures, int offset) {
+        record(Kind.RESOURCE, "glDeleteTextures", n);
+    }
+
+    @Override
+    public void glBindTexture(int target, int texture) {
+        record(Kind.STATE, "glBindTexture", target, texture);
+    }
+
+    @Override
+    public void glTexImage2D(int target, int level, int internalformat, int width, int height,
+                             int border, int format, int type, Buffer pixels) {
+        record(Kind.UPLOAD, "glTexImage2D", target, level, width, height);
+    }
+
+    @Override
+    public void glTexParameteri(int target, int pname, int param) {
+        record(Kind.STATE, "glTexParameteri", target, pname, param);
+    }
+
+    @Override
+    public void glGenFramebuffers(int n, int[] framebuffers, int offset) {
+        record(Kind.RESOURCE, "glGenFramebuffers", n);
+        fillNames(framebuffers, offset, n);
+    }
+
+    @Override
+    public void glDeleteFramebuffers(int n, int[] framebuffers, int offset) {
+        record(Kind.RESOURCE, "glDeleteFramebuffers", n);
+    }
+
+    @Override
+    public void glBindFramebuffer(int target, int framebuffer) {
+        record(Kind.STATE, "glBindFramebuffer", target, framebuffer);
+    }
+
+    @Override
+    public void glFramebufferTexture2D(int target, int attachment, int textarget, int texture, int level) {
+        record(Kind.RESOURCE, "glFramebufferTexture2D", target, attachment, textarget, texture);
+    }
+
+    @Override
+    public void glFramebufferRenderbuffer(int target, int attachment, int renderbuffertarget,
+                                          int renderbuffer) {
+        record(Kind.RESOURCE, "glFramebufferRenderbuffer", target, attachment, renderbuffer);
+    }
+
+    @Override
+    public int glCheckFramebufferStatus(int target) {
+        record(Kind.QUERY, "glCheckFramebufferStatus", target);
+        return GLES20.GL_FRAMEBUFFER_COMPLETE;
+    }
+
+    @Override
+    public void glGenRenderbuffers(int n, int[] renderbuffers, int offset) {
+        record(Kind.RESOURCE, "glGenRenderbuffers", n);
+        fillNames(renderbuffers, offset, n);
+    }
+
+    @Override
+    public void glDeleteRenderbuffers(int n, int[] renderbuffers, int offset) {
+        record(Kind.RESOURCE, "glDeleteRenderbuffers", n);
+    }
+
+    @Override
+    public void glBindRenderbuffer(int target, int renderbuffer) {
+        record(Kind.STATE, "glBindRenderbuffer", target, renderbuffer);
+    }
+
+    @Override
+    public void glRenderbufferStorage(int target, int internalformat, int width, int height) {
+        record(Kind.UPLOAD, "glRenderbufferStorage", target, internalformat, width, height);
+    }
+
+    @Override
+    public String glGetString(int name) {
+        record(Kind.QUERY, "glGetString", name);
+        return name == GLES20.GL_VERSION ? version : "RecordingGL";
+    }
+
+    @Override
+    public void glGetIntegerv(int pname, int[] params, int offset) {
+        record(Kind.QUERY, "glGetIntegerv", pname);
+        params[offset] = 0; // no program binary formats: ProgramCache stays off
+    }
+}
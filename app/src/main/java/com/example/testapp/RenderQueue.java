@@ -0,0 +1,139 @@
+package com.example.testapp;
+
+import android.opengl.GLES20;
+
+import java.util.Arrays;
+
+/**
+ * Frame-wide queue of cube draws, split by material and sorted by depth before they reach
+ * {@link CubeBatch}:
+ *
+ *  - opaque (alpha >= OPAQUE_ALPHA_THRESHOLD): front-to-back, blending off, depth writes on,
+ *    so early-Z rejects hidden fragments;
+ *  - translucent: back-to-front afterwards, blending on, depth writes off.
+ *
+ * Cube.draw* submit here. The renderer calls {@link #flushOpaque()} and then
+ * {@link #flushTranslucent()} once per frame. GL thread only.
+ */
+public class RenderQueue {
+
+    // Wood (0.95), stone (0.95), shelf books and candles (0.9) count as opaque
+    public static final float OPAQUE_ALPHA_THRESHOLD = 0.9f;
+
+    private static final int ITEM_FLOATS = 16 + 4; // model matrix + colour
+    private static final int INITIAL_CAPACITY = 512;
+
+    private static final Pass opaque = new Pass();
+    private static final Pass translucent = new Pass();
+
+    // One bucket per material; items keep their own view-projection reference
+    private static class Pass {
+        float[] items = new float[INITIAL_CAPACITY * ITEM_FLOATS];
+        float[][] vpMatrices = new float[INITIAL_CAPACITY][];
+        float[] depth = new float[INITIAL_CAPACITY];
+        int[] order = new int[INITIAL_CAPACITY];
+        int count = 0;
+
+        void add(float[] vpMatrix, float[] modelMatrix, float[] colorRGBA) {
+            if (count == depth.length) {
+                grow();
+            }
+            int base = count * ITEM_FLOATS;
+            System.arraycopy(modelMatrix, 0, items, base, 16);
+            System.arraycopy(colorRGBA, 0, items, base + 16, 4);
+            vpMatrices[count] = vpMatrix;
+
+            // Clip-space w of the model origin = distance along the view direction
+            depth[count] = vpMatrix[3] * modelMatrix[12] + vpMatrix[7] * modelMatrix[13]
+                    + vpMatrix[11] * modelMatrix[14] + vpMatrix[15];
+            order[count] = count;
+            count++;
+        }
+
+        // Only reached when a frame exceeds the previous high-water mark
+        private void grow() {
+            int newCapacity = depth.length * 2;
+            float[] newItems = new float[newCapacity * ITEM_FLOATS];
+            System.arraycopy(items, 0, newItems, 0, items.length);
+            items = newItems;
+            float[][] newVps = new float[newCapacity][];
+            System.arraycopy(vpMatrices, 0, newVps, 0, vpMatrices.length);
+            vpMatrices = newVps;
+            float[] newDepth = new float[newCapacity];
+            System.arraycopy(depth, 0, newDepth, 0, depth.length);
+            depth = newDepth;
+            order = Arrays.copyOf(order, newCapacity);
+        }
+
+        // Shell sort of the index array by depth; no allocation, fine for a few hundred items
+        void sort(boolean frontToBack) {
+            for (int gap = count / 2; gap > 0; gap /= 2) {
+                for (int i = gap; i < count; i++) {
+                    int item = order[i];
+                    float key = depth[item];
+                    int j = i;
+                    while (j >= gap && (frontToBack
+                            ? depth[order[j - gap]] > key
+                            : depth[order[j - gap]] < key)) {
+                        order[j] = order[j - gap];
+                        j -= gap;
+                    }
+                    order[j] = item;
+                }
+            }
+        }
+
+        void submitToBatch() {
+            for (int i = 0; i < count; i++) {
+                int item = order[i];
+                CubeBatch.addInstance(vpMatrices[item], items, item * ITEM_FLOATS);
+                vpMatrices[item] = null;
+            }
+            CubeBatch.flush();
+            count = 0;
+        }
+    }
+
+    public static void submit(float[] vpMatrix, float[] modelMatrix, float[] colorRGBA) {
+        if (colorRGBA[3] >= OPAQUE_ALPHA_THRESHOLD) {
+            opaque.add(vpMatrix, modelMatrix, colorRGBA);
+        } else {
+            translucent.add(vpMatrix, modelMatrix, colorRGBA);
+        }
+    }
+
+    /** Switch to opaque state and draw all opaque cubes front-to-back. */
+    public static void flushOpaque() {
+        beginOpaquePass();
+        opaque.sort(true);
+        opaque.submitToBatch();
+    }
+
+    /** Switch to blended state and draw all translucent cubes back-to-front. */
+    public static void flushTranslucent() {
+        beginTranslucentPass();
+        translucent.sort(false);
+        translucent.submitToBatch();
+    }
+
+    /** Opaque state for draws outside the queue (e.g. the baked static scene). */
+    public static void beginOpaquePass() {
+        GlState.setBlendEnabled(false);
+        GlState.depthMask(true);
+    }
+
+    /** Blended state for draws outside the queue (e.g. GPU-animated book effects). */
+    public static void beginTranslucentPass() {
+        GlState.setBlendEnabled(true);
+        GlState.blendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+        GlState.depthMask(false);
+    }
+
+    /** Drop everything queued (e.g. when a frame is abandoned). */
+    public static void clear() {
+        for (int i = 0; i < opaque.count; i++) opaque.vpMatrices[i] = null;
+        for (int i = 0; i < translucent.count; i++) translucent.vpMatrices[i] = null;
+        opaque.count = 0;
+        translucent.count = 0;
+    }
+}
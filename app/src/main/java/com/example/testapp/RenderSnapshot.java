@@ -0,0 +1,98 @@
+package com.example.testapp;
+
+/**
+ * What the GL thread needs to draw one frame of the game: mirror copies of the player and
+ * platforms as of the last simulation step, plus shake and timing.
+ *
+ * Filled on the simulation thread and handed over through a SnapshotExchange; once published
+ * its simulation state is never written again until the GL thread has moved on to a newer one.
+ * The GL thread only writes the render (interpolated) fields of the mirrors.
+ */
+public class RenderSnapshot {
+
+    private static final float STEP_NANOS = GameLogic.SIM_STEP * 1_000_000_000f;
+
+    public final Player player = new Player(0f, 0f, 0f);
+    private final PlatformGlass[] platforms = new PlatformGlass[GameLogic.MAX_LIVE_PLATFORMS];
+    private int platformCount = 0;
+
+    private float shakeAmount = 0f;
+    private float worldOriginZ = 0f;
+
+    // Last jump the simulation accepted, for input-to-present latency
+    private int jumpCount = 0;
+    private long jumpEventTime = 0;
+
+    // Progress into the next step when captured, and when that was (System.nanoTime)
+    private float alpha = 0f;
+    private long capturedAtNanos = 0;
+
+    public RenderSnapshot() {
+        for (int i = 0; i < platforms.length; i++) {
+            platforms[i] = new PlatformGlass(i, true, 0f, 0f);
+        }
+    }
+
+    /** Simulation thread only. */
+    void capture(GameLogic logic, long nowNanos) {
+        player.copyFrom(logic.player);
+
+        PlatformGlass[] src = logic.platforms;
+        int count = Math.min(logic.getLivePlatformCount(), platforms.length);
+        for (int i = 0; i < count; i++) {
+            platforms[i].copyFrom(src[i]);
+        }
+        platformCount = count;
+
+        shakeAmount = logic.getShakeAmount();
+        worldOriginZ = logic.getWorldOriginZ();
+        jumpCount = logic.getJumpCount();
+        jumpEventTime = logic.getLastJumpEventTime();
+        alpha = logic.getInterpolationAlpha();
+        capturedAtNanos = nowNanos;
+    }
+
+    /**
+     * Interpolate the mirrors for a frame drawn at nowNanos. The simulation keeps stepping
+     * while this snapshot is on screen, so the blend factor keeps growing from the captured
+     * one; it stops at the last step rather than extrapolating.
+     */
+    public void interpolate(long nowNanos) {
+        float a = alpha + (nowNanos - capturedAtNanos) / STEP_NANOS;
+        a = Math.max(0f, Math.min(1f, a));
+
+        player.interpolate(a);
+        for (int i = 0; i < platformCount; i++) {
+            platforms[i].interpolate(a);
+        }
+    }
+
+    public float getShakeAmount() {
+        return shakeAmount;
+    }
+
+    /** How far the endless world had been moved back when captured (GameLogic.getWorldOriginZ). */
+    public float getWorldOriginZ() {
+        return worldOriginZ;
+    }
+
+    public int getJumpCount() {
+        return jumpCount;
+    }
+
+    public long getJumpEventTime() {
+        return jumpEventTime;
+    }
+
+    public void draw(float[] vpMatrix, Frustum frustum) {
+        for (int i = 0; i < platformCount; i++) {
+            PlatformGlass p = platforms[i];
+            if (frustum != null && !p.isVisible(frustum)) {
+                RenderStats.objectsCulled++;
+                continue;
+            }
+            p.draw(vpMatrix);
+        }
+        player.draw(vpMatrix);
+    }
+}
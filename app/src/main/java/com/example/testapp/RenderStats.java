@@ -0,0 +1,19 @@
+package com.example.testapp;
+
+/**
+ * Per-frame render counters. Reset by the renderer at the start of each frame and
+ * written on the GL thread only.
+ */
+public class RenderStats {
+
+    // Objects rejected by frustum culling this frame (shelf rows, candles, books, platforms)
+    public static int objectsCulled = 0;
+
+    // glDraw* calls this frame, counted at each call site
+    public static int drawCalls = 0;
+
+    public static void beginFrame() {
+        objectsCulled = 0;
+        drawCalls = 0;
+    }
+}
@@ -0,0 +1,319 @@
+package com.example.testapp;
+
+import android.opengl.GLES20;
+import android.util.Log;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Optional dynamic resolution: the scene is rendered into an offscreen framebuffer at
+ * scale * surface size and stretched onto the surface with one textured quad. GameRenderer
+ * turns it on while the QualityGovernor is at its lowest tier.
+ *
+ * The attachments are allocated once at full surface size; a lower scale only shrinks the
+ * viewport and the sampled region, so scale changes never reallocate.
+ *
+ * The controller works on the interval between onDrawFrame calls (vsync-locked, so it
+ * includes GPU back-pressure). Every WINDOW_FRAMES it compares the window average with the
+ * frame budget: over budget steps the scale down at once; under budget for
+ * UP_STABLE_WINDOWS windows in a row steps it back up. Each decision is logged and kept for
+ * diagnostics.
+ *
+ * GL thread only.
+ */
+public class ResolutionScaler {
+    private static final String TAG = "ResolutionScaler";
+
+    public static final float MIN_SCALE = 0.5f;
+    public static final float MAX_SCALE = 1f;
+    private static final float SCALE_STEP = 0.1f;
+
+    private static final float TARGET_FRAME_MS = 1000f / 60f;
+    private static final float DOWN_THRESHOLD_MS = TARGET_FRAME_MS * 1.15f; // ~19.2 ms
+    private static final float UP_THRESHOLD_MS = TARGET_FRAME_MS * 1.05f;   // ~17.5 ms
+    private static final int WINDOW_FRAMES = 30;
+    private static final int UP_STABLE_WINDOWS = 4;
+    private static final float MAX_SAMPLE_MS = 250f; // longer gaps are pauses, not load
+
+    // Full-screen quad as a triangle strip, clip-space xy
+    private static final float[] QUAD = {
+            -1f, -1f,
+            1f, -1f,
+            -1f, 1f,
+            1f, 1f
+    };
+
+    public static final int DECISION_NONE = 0;
+    public static final int DECISION_DOWN = 1;
+    public static final int DECISION_UP = 2;
+
+    private boolean enabled = false;
+    private float scale = MAX_SCALE;
+
+    private int surfaceWidth = 0;
+    private int surfaceHeight = 0;
+    private int renderWidth = 0;
+    private int renderHeight = 0;
+
+    private int framebufferId = 0;
+    private int colorTextureId = 0;
+    private int depthBufferId = 0;
+    private int quadVboId = 0;
+    private int allocatedWidth = 0;
+    private int allocatedHeight = 0;
+
+    // Controller state
+    private long lastFrameNanos = 0;
+    private float windowSumMs = 0f;
+    private int windowFrames = 0;
+    private int stableWindows = 0;
+    private float lastWindowMs = 0f;
+    private int lastDecision = DECISION_NONE;
+    private int decisionCount = 0;
+
+    // ------------------------
+    // Configuration
+    // ------------------------
+    public void setEnabled(boolean enabled) {
+        if (this.enabled == enabled) return;
+        this.enabled = enabled;
+        scale = MAX_SCALE;
+        resetWindow();
+        updateRenderSize();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // ------------------------
+    // GL lifecycle (onSurfaceCreated / onSurfaceChanged)
+    // ------------------------
+
+    /** Forget GL names from a lost context. */
+    public void invalidate() {
+        framebufferId = 0;
+        colorTextureId = 0;
+        depthBufferId = 0;
+        quadVboId = 0;
+        allocatedWidth = 0;
+        allocatedHeight = 0;
+    }
+
+    public void setSurfaceSize(int width, int height) {
+        surfaceWidth = width;
+        surfaceHeight = height;
+        updateRenderSize();
+    }
+
+    private void deleteTarget() {
+        if (framebufferId != 0) {
+            Gl.get().glDeleteFramebuffers(1, new int[]{framebufferId}, 0);
+            Gl.get().glDeleteTextures(1, new int[]{colorTextureId}, 0);
+            Gl.get().glDeleteRenderbuffers(1, new int[]{depthBufferId}, 0);
+        }
+        if (quadVboId != 0) {
+            Gl.get().glDeleteBuffers(1, new int[]{quadVboId}, 0);
+            GlState.onBufferDeleted(quadVboId);
+        }
+        invalidate();
+    }
+
+    // Allocates (or resizes) the offscreen target to the full surface size; false on failure
+    private boolean ensureTarget() {
+        if (framebufferId != 0 && allocatedWidth == surfaceWidth && allocatedHeight == surfaceHeight) {
+            return true;
+        }
+        if (surfaceWidth <= 0 || surfaceHeight <= 0 || ShaderHelper.blitProgram == -1) {
+            return false;
+        }
+
+        if (framebufferId == 0) {
+            int[] ids = new int[1];
+            Gl.get().glGenFramebuffers(1, ids, 0);
+            framebufferId = ids[0];
+            Gl.get().glGenTextures(1, ids, 0);
+            colorTextureId = ids[0];
+            Gl.get().glGenRenderbuffers(1, ids, 0);
+            depthBufferId = ids[0];
+        }
+
+        Gl.get().glBindTexture(GLES20.GL_TEXTURE_2D, colorTextureId);
+        Gl.get().glTexImage2D(GLES20.GL_TEXTURE_2D, 0, GLES20.GL_RGBA, surfaceWidth, surfaceHeight, 0,
+                GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, null);
+        Gl.get().glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_LINEAR);
+        Gl.get().glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_LINEAR);
+        Gl.get().glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_CLAMP_TO_EDGE);
+        Gl.get().glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_CLAMP_TO_EDGE);
+
+        Gl.get().glBindRenderbuffer(GLES20.GL_RENDERBUFFER, depthBufferId);
+        Gl.get().glRenderbufferStorage(GLES20.GL_RENDERBUFFER, GLES20.GL_DEPTH_COMPONENT16,
+                surfaceWidth, surfaceHeight);
+
+        Gl.get().glBindFramebuffer(GLES20.GL_FRAMEBUFFER, framebufferId);
+        Gl.get().glFramebufferTexture2D(GLES20.GL_FRAMEBUFFER, GLES20.GL_COLOR_ATTACHMENT0,
+                GLES20.GL_TEXTURE_2D, colorTextureId, 0);
+        Gl.get().glFramebufferRenderbuffer(GLES20.GL_FRAMEBUFFER, GLES20.GL_DEPTH_ATTACHMENT,
+                GLES20.GL_RENDERBUFFER, depthBufferId);
+
+        int status = Gl.get().glCheckFramebufferStatus(GLES20.GL_FRAMEBUFFER);
+        Gl.get().glBindFramebuffer(GLES20.GL_FRAMEBUFFER, 0);
+        if (status != GLES20.GL_FRAMEBUFFER_COMPLETE) {
+            Log.e(TAG, "Offscreen framebuffer incomplete (0x" + Integer.toHexString(status)
+                    + "), rendering at native resolution");
+            deleteTarget();
+            enabled = false;
+            updateRenderSize();
+            return false;
+        }
+
+        if (quadVboId == 0) {
+            FloatBuffer quad = ByteBuffer.allocateDirect(QUAD.length * 4)
+                    .order(ByteOrder.nativeOrder())
+                    .asFloatBuffer();
+            quad.put(QUAD).position(0);
+
+            int[] ids = new int[1];
+            Gl.get().glGenBuffers(1, ids, 0);
+            quadVboId = ids[0];
+            GlState.bindArrayBuffer(quadVboId);
+            Gl.get().glBufferData(GLES20.GL_ARRAY_BUFFER, QUAD.length * 4, quad, GLES20.GL_STATIC_DRAW);
+        }
+
+        allocatedWidth = surfaceWidth;
+        allocatedHeight = surfaceHeight;
+        return true;
+    }
+
+    // ------------------------
+    // Frame API
+    // ------------------------
+
+    /** Feed the controller with the start time of a continuously rendered frame. */
+    public void onFrame(long frameTimeNanos) {
+        if (enabled) {
+            recordFrame(frameTimeNanos);
+        } else {
+            lastFrameNanos = frameTimeNanos;
+        }
+    }
+
+    /** Frames are not paced by vsync (on-demand rendering): forget the running window. */
+    public void resetWindow() {
+        windowSumMs = 0f;
+        windowFrames = 0;
+        stableWindows = 0;
+        lastFrameNanos = 0;
+    }
+
+    /**
+     * Call first thing in onDrawFrame: binds the render target (offscreen at the current
+     * scale, or the surface when disabled).
+     */
+    public void beginFrame() {
+        if (enabled && ensureTarget()) {
+            Gl.get().glBindFramebuffer(GLES20.GL_FRAMEBUFFER, framebufferId);
+            Gl.get().glViewport(0, 0, renderWidth, renderHeight);
+        } else {
+            Gl.get().glBindFramebuffer(GLES20.GL_FRAMEBUFFER, 0);
+            Gl.get().glViewport(0, 0, surfaceWidth, surfaceHeight);
+        }
+    }
+
+    /** Call after the scene is drawn: stretches the offscreen image onto the surface. */
+    public void endFrame() {
+        if (!enabled || framebufferId == 0) return;
+
+        Gl.get().glBindFramebuffer(GLES20.GL_FRAMEBUFFER, 0);
+        Gl.get().glViewport(0, 0, surfaceWidth, surfaceHeight);
+
+        // Clearing lets tiled GPUs skip loading the old surface contents
+        GlState.depthMask(true);
+        Gl.get().glClear(GLES20.GL_COLOR_BUFFER_BIT | GLES20.GL_DEPTH_BUFFER_BIT);
+
+        GlState.setBlendEnabled(false);
+        GlState.setDepthTestEnabled(false);
+
+        GlState.useProgram(ShaderHelper.blitProgram);
+        Gl.get().glActiveTexture(GLES20.GL_TEXTURE0);
+        Gl.get().glBindTexture(GLES20.GL_TEXTURE_2D, colorTextureId);
+        Gl.get().glUniform1i(ShaderHelper.blitTextureHandle, 0);
+        Gl.get().glUniform2f(ShaderHelper.blitUvScaleHandle,
+                (float) renderWidth / allocatedWidth, (float) renderHeight / allocatedHeight);
+
+        GlState.bindArrayBuffer(quadVboId);
+        GlState.setEnabledAttributes(GlState.attribBit(ShaderHelper.blitPositionHandle));
+        GlState.vertexAttribPointer(ShaderHelper.blitPositionHandle, 2, 2 * 4, 0);
+
+        RenderStats.drawCalls++;
+        Gl.get().glDrawArrays(GLES20.GL_TRIANGLE_STRIP, 0, 4);
+
+        GlState.setDepthTestEnabled(true);
+    }
+
+    // Size of the current render target in pixels
+    public int getRenderWidth() { return renderWidth; }
+    public int getRenderHeight() { return renderHeight; }
+
+    // ------------------------
+    // Controller
+    // ------------------------
+    private void recordFrame(long frameTimeNanos) {
+        if (lastFrameNanos != 0) {
+            float ms = (frameTimeNanos - lastFrameNanos) / 1_000_000f;
+            if (ms > 0f && ms < MAX_SAMPLE_MS) {
+                windowSumMs += ms;
+                windowFrames++;
+            }
+        }
+        lastFrameNanos = frameTimeNanos;
+
+        if (windowFrames < WINDOW_FRAMES) return;
+
+        lastWindowMs = windowSumMs / windowFrames;
+        windowSumMs = 0f;
+        windowFrames = 0;
+
+        if (lastWindowMs > DOWN_THRESHOLD_MS) {
+            stableWindows = 0;
+            if (scale > MIN_SCALE) {
+                applyScale(scale - SCALE_STEP, DECISION_DOWN);
+            }
+        } else if (lastWindowMs < UP_THRESHOLD_MS) {
+            stableWindows++;
+            if (stableWindows >= UP_STABLE_WINDOWS && scale < MAX_SCALE) {
+                stableWindows = 0;
+                applyScale(scale + SCALE_STEP, DECISION_UP);
+            }
+        } else {
+            stableWindows = 0;
+        }
+    }
+
+    private void applyScale(float newScale, int decision) {
+        // Round to the step grid so repeated up/down moves don't drift
+        newScale = Math.round(newScale / SCALE_STEP) * SCALE_STEP;
+        scale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, newScale));
+        lastDecision = decision;
+        decisionCount++;
+        updateRenderSize();
+        Log.d(TAG, (decision == DECISION_DOWN ? "Scale down" : "Scale up") + " to " + scale
+                + " (" + renderWidth + "x" + renderHeight + "), avg frame " + lastWindowMs + " ms");
+    }
+
+    private void updateRenderSize() {
+        float s = enabled ? scale : 1f;
+        renderWidth = Math.max(1, Math.round(surfaceWidth * s));
+        renderHeight = Math.max(1, Math.round(surfaceHeight * s));
+    }
+
+    // ------------------------
+    // Diagnostics
+    // ------------------------
+    public float getScale() { return enabled ? scale : 1f; }
+    public float getLastWindowMs() { return lastWindowMs; }
+    public int getLastDecision() { return lastDecision; }
+    public int getDecisionCount() { return decisionCount; }
+}
@@ -32,6 +32,191 @@ public class ShaderHelper {
                     "    gl_FragColor = vec4(uColor.rgb * light, uColor.a);\n" +
                     "}\n";
 
+    // ============================================================
+    // BATCH SHADERS — colour comes per vertex/instance instead of uColor
+    // ============================================================
+
+    // ES 2.0 fallback: vertices are already transformed to world space on the CPU
+    private static final String BATCH_VERTEX_SHADER =
+            "uniform mat4 uVPMatrix;\n" +
+                    "attribute vec3 aPosition;\n" +
+                    "attribute vec3 aNormal;\n" +
+                    "attribute vec4 aColor;\n" +
+                    "varying vec3 vNormal;\n" +
+                    "varying vec4 vColor;\n" +
+                    "void main() {\n" +
+                    "    vNormal = aNormal;\n" +
+                    "    vColor = aColor;\n" +
+                    "    gl_Position = uVPMatrix * vec4(aPosition, 1.0);\n" +
+                    "}\n";
+
+    private static final String BATCH_FRAGMENT_SHADER =
+            "precision mediump float;\n" +
+                    "varying vec3 vNormal;\n" +
+                    "varying vec4 vColor;\n" +
+                    "void main() {\n" +
+                    "    vec3 lightDir = normalize(vec3(0.2, 0.7, 1.0));\n" +
+                    "    float light = dot(normalize(vNormal), lightDir);\n" +
+                    "    light = clamp(light * 0.5 + 0.5, 0.0, 1.0);\n" +
+                    "    gl_FragColor = vec4(vColor.rgb * light, vColor.a);\n" +
+                    "}\n";
+
+    // ES 3.0: model matrix and colour are per-instance attributes (fixed locations)
+    public static final int INSTANCED_POSITION_LOCATION = 0;
+    public static final int INSTANCED_NORMAL_LOCATION = 1;
+    public static final int INSTANCED_MODEL_LOCATION = 2; // uses 2..5, one vec4 per column
+    public static final int INSTANCED_COLOR_LOCATION = 6;
+
+    private static final String INSTANCED_VERTEX_SHADER =
+            "#version 300 es\n" +
+                    "uniform mat4 uVPMatrix;\n" +
+                    "layout(location = 0) in vec3 aPosition;\n" +
+                    "layout(location = 1) in vec3 aNormal;\n" +
+                    "layout(location = 2) in vec4 aModel0;\n" +
+                    "layout(location = 3) in vec4 aModel1;\n" +
+                    "layout(location = 4) in vec4 aModel2;\n" +
+                    "layout(location = 5) in vec4 aModel3;\n" +
+                    "layout(location = 6) in vec4 aColor;\n" +
+                    "out vec3 vNormal;\n" +
+                    "out vec4 vColor;\n" +
+                    "void main() {\n" +
+                    "    mat4 model = mat4(aModel0, aModel1, aModel2, aModel3);\n" +
+                    "    vNormal = aNormal;\n" +
+                    "    vColor = aColor;\n" +
+                    "    gl_Position = uVPMatrix * model * vec4(aPosition, 1.0);\n" +
+                    "}\n";
+
+    private static final String INSTANCED_FRAGMENT_SHADER =
+            "#version 300 es\n" +
+                    "precision mediump float;\n" +
+                    "in vec3 vNormal;\n" +
+                    "in vec4 vColor;\n" +
+                    "out vec4 fragColor;\n" +
+                    "void main() {\n" +
+                    "    vec3 lightDir = normalize(vec3(0.2, 0.7, 1.0));\n" +
+                    "    float light = dot(normalize(vNormal), lightDir);\n" +
+                    "    light = clamp(light * 0.5 + 0.5, 0.0, 1.0);\n" +
+                    "    fragColor = vec4(vColor.rgb * light, vColor.a);\n" +
+                    "}\n";
+
+    // ============================================================
+    // BOOK SHADER — floating books animated from uTime (see BookMesh)
+    // ============================================================
+
+    // Mirrors the CPU book path in GameRenderer: world = T(centre) * Ry(spin) * Rx(tilt),
+    // piece = T(hinge) * Ry(rot) * T(offset) * S(scale). Effects fade with the glow pulse.
+    private static final String BOOK_VERTEX_SHADER =
+            "uniform mat4 uVPMatrix;\n" +
+                    "uniform float uTime;\n" +
+                    "uniform float uBookLod[" + BookMesh.MAX_BOOKS + "];\n" + // BookLod level per book
+                    "attribute vec3 aPosition;\n" +
+                    "attribute vec3 aNormal;\n" +
+                    "attribute vec4 aBookCenter;\n" + // x, y, z, size
+                    "attribute vec4 aBookMotion;\n" + // orbitRadius, orbitSpeed, bobSpeed, bobOffset
+                    "attribute vec4 aBookSpin;\n" +   // spinSpeed, tilt, pageFlipSpeed, -
+                    "attribute vec4 aPiece;\n" +      // type, index, side, book
+                    "attribute vec4 aColor;\n" +
+                    "varying vec3 vNormal;\n" +
+                    "varying vec4 vColor;\n" +
+                    "vec3 rotateY(vec3 p, float deg) {\n" +
+                    "    float a = radians(deg);\n" +
+                    "    float c = cos(a);\n" +
+                    "    float s = sin(a);\n" +
+                    "    return vec3(p.x * c + p.z * s, p.y, p.z * c - p.x * s);\n" +
+                    "}\n" +
+                    "vec3 rotateX(vec3 p, float deg) {\n" +
+                    "    float a = radians(deg);\n" +
+                    "    float c = cos(a);\n" +
+                    "    float s = sin(a);\n" +
+                    "    return vec3(p.x, p.y * c - p.z * s, p.y * s + p.z * c);\n" +
+                    "}\n" +
+                    "void main() {\n" +
+                    "    float t = uTime;\n" +
+                    "    float size = aBookCenter.w;\n" +
+                    "    float type = aPiece.x;\n" +
+                    "    float index = aPiece.y;\n" +
+                    "    float side = aPiece.z;\n" +
+                    "    vColor = aColor;\n" +
+                    "    vNormal = aNormal;\n" +
+                    "    float level = uBookLod[int(aPiece.w)];\n" +
+                    "    bool isFar = level > 1.5;\n" +
+                    // Past LEVEL_NEAR effects collapse; at LEVEL_FAR only the spine is kept
+                    "    if ((type > 2.5 && level > 0.5) || (isFar && type > 0.5)) {\n" +
+                    "        gl_Position = vec4(2.0, 2.0, 2.0, 1.0);\n" +
+                    "        return;\n" +
+                    "    }\n" +
+                    "    float height = size * 1.4;\n" +
+                    "    float width = size * 1.2;\n" +
+                    "    float coverT = size * 0.02;\n" +
+                    "    float pageT = size * 0.08;\n" +
+                    "    float pageW = width * 0.5;\n" +
+                    "    float halfSpine = size * 0.015;\n" +
+                    "    float openAngle = -(40.0 + sin(t * aBookSpin.z) * 15.0);\n" +
+                    "    vec3 hinge = vec3(0.0);\n" +
+                    "    vec3 offset = vec3(0.0);\n" +
+                    "    float rot = 0.0;\n" +
+                    "    vec3 scale;\n" +
+                    "    if (type < 0.5) {\n" +
+                    "        scale = isFar ? vec3(width * 0.5, height, width * 0.9)\n" +
+                    "                    : vec3(size * 0.15, height, size * 0.03);\n" +
+                    "    } else if (type < 2.5) {\n" +
+                    "        hinge.z = side * halfSpine;\n" +
+                    "        rot = side * openAngle;\n" +
+                    "        offset.z = side * pageW * 0.5;\n" +
+                    "        if (type < 1.5) {\n" +
+                    "            scale = vec3(pageT, height * 0.96, pageW);\n" +
+                    "        } else {\n" +
+                    "            offset.x = (pageT + coverT) * 0.5;\n" +
+                    "            scale = vec3(coverT, height, pageW * 1.25);\n" +
+                    "        }\n" +
+                    "    } else if (type < 3.5) {\n" +
+                    "        hinge = vec3(0.0, (index - 1.0) * height * 0.35, side * (halfSpine + coverT * 0.5));\n" +
+                    "        rot = side * (openAngle + 5.0);\n" +
+                    "        scale = vec3(coverT * 0.3, size * 0.15, size * 0.15);\n" +
+                    "    } else if (type < 4.5) {\n" +
+                    "        float a = t * 2.0 + index * 1.57;\n" +
+                    "        hinge = vec3(cos(a), 0.0, sin(a)) * size * 0.8;\n" +
+                    "        scale = vec3(size * 0.08);\n" +
+                    "    } else {\n" +
+                    "        float a = t * 2.5 + index * 1.0472;\n" +
+                    "        hinge = vec3(cos(a) * size * 0.7, sin(t * 1.5 + index) * height * 0.3, sin(a) * size * 0.7);\n" +
+                    "        rot = t * 100.0 + index * 60.0;\n" +
+                    "        scale = vec3(size * 0.05);\n" +
+                    "    }\n" +
+                    "    if (type > 2.5) {\n" +
+                    "        vColor.a *= sin(t * 3.0 + aBookMotion.w) * 0.3 + 0.7;\n" +
+                    "    }\n" +
+                    "    vec3 local = hinge + rotateY(offset + aPosition * scale, rot);\n" +
+                    "    float orbit = t * aBookMotion.y + aBookMotion.w;\n" +
+                    "    vec3 center = aBookCenter.xyz + vec3(\n" +
+                    "            cos(orbit) * aBookMotion.x * 0.5,\n" +
+                    "            sin(t * aBookMotion.z + aBookMotion.w) * 0.4,\n" +
+                    "            sin(orbit * 0.6) * aBookMotion.x * 0.5);\n" +
+                    "    vec3 world = center + rotateY(rotateX(local, aBookSpin.y), t * aBookSpin.x);\n" +
+                    "    gl_Position = uVPMatrix * vec4(world, 1.0);\n" +
+                    "}\n";
+
+    // ============================================================
+    // BLIT SHADER — stretches the offscreen scene onto the surface (ResolutionScaler)
+    // ============================================================
+
+    private static final String BLIT_VERTEX_SHADER =
+            "uniform vec2 uUvScale;\n" +
+                    "attribute vec2 aPosition;\n" +
+                    "varying vec2 vTexCoord;\n" +
+                    "void main() {\n" +
+                    "    vTexCoord = (aPosition * 0.5 + 0.5) * uUvScale;\n" +
+                    "    gl_Position = vec4(aPosition, 0.0, 1.0);\n" +
+                    "}\n";
+
+    private static final String BLIT_FRAGMENT_SHADER =
+            "precision mediump float;\n" +
+                    "uniform sampler2D uTexture;\n" +
+                    "varying vec2 vTexCoord;\n" +
+                    "void main() {\n" +
+                    "    gl_FragColor = texture2D(uTexture, vTexCoord);\n" +
+                    "}\n";
+
     // ============================================================
 
     public static int program = -1;
@@ -44,68 +229,218 @@ public class ShaderHelper {
     public static int uMVPMatrixHandle = -1;
     public static int uColorHandle = -1;
 
+    // Batch program (ES 2.0 path)
+    public static int batchProgram = -1;
+    public static int batchPositionHandle = -1;
+    public static int batchNormalHandle = -1;
+    public static int batchColorHandle = -1;
+    public static int batchVPMatrixHandle = -1;
+
+    // Instanced program (ES 3.0 path, -1 when the context is ES 2.0 only)
+    public static int instancedProgram = -1;
+    public static int instancedVPMatrixHandle = -1;
+
+    // Book program (GPU-animated floating books, -1 if it failed to build)
+    public static int bookProgram = -1;
+    public static int bookPositionHandle = -1;
+    public static int bookNormalHandle = -1;
+    public static int bookCenterHandle = -1;
+    public static int bookMotionHandle = -1;
+    public static int bookSpinHandle = -1;
+    public static int bookPieceHandle = -1;
+    public static int bookColorHandle = -1;
+    public static int bookVPMatrixHandle = -1;
+    public static int bookTimeHandle = -1;
+    public static int bookLodHandle = -1;
+
+    // Blit program (dynamic resolution upscale)
+    public static int blitProgram = -1;
+    public static int blitPositionHandle = -1;
+    public static int blitTextureHandle = -1;
+    public static int blitUvScaleHandle = -1;
+
+    // Major version of the current context, parsed from GL_VERSION ("OpenGL ES 3.2 ...")
+    public static int glesMajorVersion = 2;
+
+    // Optional on-disk cache of linked programs (null = always compile from source)
+    private static ProgramCache programCache;
+
     // ============================================================
 
+    /** Set before the first init(); binaries are then reused across launches and contexts. */
+    public static void setProgramCache(ProgramCache cache) {
+        programCache = cache;
+    }
+
     public static void init() {
         if (program != -1) return; // already created
 
-        int vs = loadShader(GLES20.GL_VERTEX_SHADER, VERTEX_SHADER);
-        int fs = loadShader(GLES20.GL_FRAGMENT_SHADER, FRAGMENT_SHADER);
+        glesMajorVersion = parseMajorVersion(Gl.get().glGetString(GLES20.GL_VERSION));
+        if (programCache != null) {
+            programCache.begin(glesMajorVersion);
+        }
+
+        program = buildProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        if (program == -1) {
+            return;
+        }
+
+        // ---- GET ALL HANDLES ----
+        aPositionHandle = Gl.get().glGetAttribLocation(program, "aPosition");
+        aNormalHandle = Gl.get().glGetAttribLocation(program, "aNormal");
+        uMVPMatrixHandle = Gl.get().glGetUniformLocation(program, "uMVPMatrix");
+        uColorHandle = Gl.get().glGetUniformLocation(program, "uColor");
+
+        batchProgram = buildProgram(BATCH_VERTEX_SHADER, BATCH_FRAGMENT_SHADER);
+        if (batchProgram != -1) {
+            batchPositionHandle = Gl.get().glGetAttribLocation(batchProgram, "aPosition");
+            batchNormalHandle = Gl.get().glGetAttribLocation(batchProgram, "aNormal");
+            batchColorHandle = Gl.get().glGetAttribLocation(batchProgram, "aColor");
+            batchVPMatrixHandle = Gl.get().glGetUniformLocation(batchProgram, "uVPMatrix");
+        }
+
+        // Shares the batch fragment shader (per-vertex colour)
+        bookProgram = buildProgram(BOOK_VERTEX_SHADER, BATCH_FRAGMENT_SHADER);
+        if (bookProgram != -1) {
+            bookPositionHandle = Gl.get().glGetAttribLocation(bookProgram, "aPosition");
+            bookNormalHandle = Gl.get().glGetAttribLocation(bookProgram, "aNormal");
+            bookCenterHandle = Gl.get().glGetAttribLocation(bookProgram, "aBookCenter");
+            bookMotionHandle = Gl.get().glGetAttribLocation(bookProgram, "aBookMotion");
+            bookSpinHandle = Gl.get().glGetAttribLocation(bookProgram, "aBookSpin");
+            bookPieceHandle = Gl.get().glGetAttribLocation(bookProgram, "aPiece");
+            bookColorHandle = Gl.get().glGetAttribLocation(bookProgram, "aColor");
+            bookVPMatrixHandle = Gl.get().glGetUniformLocation(bookProgram, "uVPMatrix");
+            bookTimeHandle = Gl.get().glGetUniformLocation(bookProgram, "uTime");
+            bookLodHandle = Gl.get().glGetUniformLocation(bookProgram, "uBookLod");
+        }
+
+        blitProgram = buildProgram(BLIT_VERTEX_SHADER, BLIT_FRAGMENT_SHADER);
+        if (blitProgram != -1) {
+            blitPositionHandle = Gl.get().glGetAttribLocation(blitProgram, "aPosition");
+            blitTextureHandle = Gl.get().glGetUniformLocation(blitProgram, "uTexture");
+            blitUvScaleHandle = Gl.get().glGetUniformLocation(blitProgram, "uUvScale");
+        }
+
+        if (glesMajorVersion >= 3) {
+            instancedProgram = buildProgram(INSTANCED_VERTEX_SHADER, INSTANCED_FRAGMENT_SHADER);
+            if (instancedProgram != -1) {
+                instancedVPMatrixHandle = Gl.get().glGetUniformLocation(instancedProgram, "uVPMatrix");
+            }
+        }
+    }
+
+    // Forget handles from a lost EGL context so init() builds a fresh program
+    public static void invalidate() {
+        program = -1;
+        aPositionHandle = -1;
+        aNormalHandle = -1;
+        uMVPMatrixHandle = -1;
+        uColorHandle = -1;
+
+        batchProgram = -1;
+        batchPositionHandle = -1;
+        batchNormalHandle = -1;
+        batchColorHandle = -1;
+        batchVPMatrixHandle = -1;
+
+        instancedProgram = -1;
+        instancedVPMatrixHandle = -1;
+
+        bookProgram = -1;
+        bookPositionHandle = -1;
+        bookNormalHandle = -1;
+        bookCenterHandle = -1;
+        bookMotionHandle = -1;
+        bookSpinHandle = -1;
+        bookPieceHandle = -1;
+        bookColorHandle = -1;
+        bookVPMatrixHandle = -1;
+        bookTimeHandle = -1;
+        bookLodHandle = -1;
+
+        blitProgram = -1;
+        blitPositionHandle = -1;
+        blitTextureHandle = -1;
+        blitUvScaleHandle = -1;
+    }
+
+    /**
+     * Point the batch program's position/normal/colour at the bound array buffer
+     * (interleaved 3 + 3 + 4 floats). Program must already be in use.
+     */
+    public static void bindBatchAttributes(int stride) {
+        GlState.setEnabledAttributes(GlState.attribBit(batchPositionHandle)
+                | GlState.attribBit(batchNormalHandle)
+                | GlState.attribBit(batchColorHandle));
+        GlState.vertexAttribPointer(batchPositionHandle, 3, stride, 0);
+        GlState.vertexAttribPointer(batchNormalHandle, 3, stride, 3 * 4);
+        GlState.vertexAttribPointer(batchColorHandle, 4, stride, 6 * 4);
+    }
+
+    // Cached binary if there is a valid one, else compile + link (and cache); -1 on failure
+    private static int buildProgram(String vertexSource, String fragmentSource) {
+        if (programCache != null) {
+            int cached = programCache.load(vertexSource, fragmentSource);
+            if (cached != -1) return cached;
+        }
+
+        int vs = loadShader(GLES20.GL_VERTEX_SHADER, vertexSource);
+        int fs = loadShader(GLES20.GL_FRAGMENT_SHADER, fragmentSource);
 
         if (vs == 0 || fs == 0) {
             Log.e(TAG, "Failed to load shaders");
-            return;
+            if (vs != 0) Gl.get().glDeleteShader(vs);
+            if (fs != 0) Gl.get().glDeleteShader(fs);
+            return -1;
+        }
+
+        int prog = Gl.get().glCreateProgram();
+        Gl.get().glAttachShader(prog, vs);
+        Gl.get().glAttachShader(prog, fs);
+        if (programCache != null) {
+            programCache.prepareForLink(prog);
         }
+        Gl.get().glLinkProgram(prog);
 
-        program = GLES20.glCreateProgram();
-        GLES20.glAttachShader(program, vs);
-        GLES20.glAttachShader(program, fs);
-        GLES20.glLinkProgram(program);
+        // Clean up after linking
+        Gl.get().glDeleteShader(vs);
+        Gl.get().glDeleteShader(fs);
 
         int[] linkStatus = new int[1];
-        GLES20.glGetProgramiv(program, GLES20.GL_LINK_STATUS, linkStatus, 0);
+        Gl.get().glGetProgramiv(prog, GLES20.GL_LINK_STATUS, linkStatus, 0);
 
         if (linkStatus[0] == 0) {
-            Log.e(TAG, "Error linking program: " + GLES20.glGetProgramInfoLog(program));
-            GLES20.glDeleteProgram(program);
-            program = -1;
-            return;
+            Log.e(TAG, "Error linking program: " + Gl.get().glGetProgramInfoLog(prog));
+            Gl.get().glDeleteProgram(prog);
+            return -1;
         }
 
-        // ---- GET ALL HANDLES ----
-        aPositionHandle = GLES20.glGetAttribLocation(program, "aPosition");
-        aNormalHandle = GLES20.glGetAttribLocation(program, "aNormal");
-        uMVPMatrixHandle = GLES20.glGetUniformLocation(program, "uMVPMatrix");
-        uColorHandle = GLES20.glGetUniformLocation(program, "uColor");
-
-        // Clean up after linking
-        GLES20.glDeleteShader(vs);
-        GLES20.glDeleteShader(fs);
+        if (programCache != null) {
+            programCache.store(prog, vertexSource, fragmentSource);
+        }
+        return prog;
     }
 
-    public static void release() {
-        if (program != -1) {
-            GLES20.glDeleteProgram(program);
-            program = -1;
-            aPositionHandle = -1;
-            aNormalHandle = -1;
-            uMVPMatrixHandle = -1;
-            uColorHandle = -1;
-        }
+    private static int parseMajorVersion(String version) {
+        // Format is "OpenGL ES <major>.<minor> <vendor info>"
+        if (version == null || !version.startsWith("OpenGL ES ")) return 2;
+        int pos = "OpenGL ES ".length();
+        if (pos >= version.length() || !Character.isDigit(version.charAt(pos))) return 2;
+        return version.charAt(pos) - '0';
     }
 
     private static int loadShader(int type, String shaderCode) {
-        int shader = GLES20.glCreateShader(type);
-        GLES20.glShaderSource(shader, shaderCode);
-        GLES20.glCompileShader(shader);
+        int shader = Gl.get().glCreateShader(type);
+        Gl.get().glShaderSource(shader, shaderCode);
+        Gl.get().glCompileShader(shader);
 
         int[] compileStatus = new int[1];
-        GLES20.glGetShaderiv(shader, GLES20.GL_COMPILE_STATUS, compileStatus, 0);
+        Gl.get().glGetShaderiv(shader, GLES20.GL_COMPILE_STATUS, compileStatus, 0);
 
         if (compileStatus[0] == 0) {
             Log.e(TAG, "Shader compile error: " +
-                    GLES20.glGetShaderInfoLog(shader));
-            GLES20.glDeleteShader(shader);
+                    Gl.get().glGetShaderInfoLog(shader));
+            Gl.get().glDeleteShader(shader);
             return 0;
         }
         return shader;
@@ -0,0 +1,155 @@
+package com.example.testapp;
+
+import android.os.Process;
+import android.util.Log;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs GameLogic on its own thread, one fixed step at a time, and publishes a RenderSnapshot
+ * after each wake-up. The GL thread draws the latest snapshot and never waits for the
+ * simulation, so a slow frame delays only what is shown, not gameplay timing.
+ *
+ * Everything that mutates GameLogic runs here: posted commands (UI input, menu actions)
+ * are drained before each update, and also while paused, so a command posted just before
+ * the pause still runs at the time it was posted. Whoever follows the game state (the
+ * render policy) hears about changes from the StateListener once they have been applied.
+ */
+public class SimulationThread implements Runnable {
+    private static final String TAG = "SimulationThread";
+
+    private static final long STEP_NANOS = (long) (GameLogic.SIM_STEP * 1_000_000_000L);
+    private static final long MIN_PARK_NANOS = 500_000L;
+
+    public interface StateListener {
+        /** Simulation thread. A command or update left the game in a new state. */
+        void onStateChanged(GameLogic.GameState state);
+    }
+
+    private final GameLogic logic;
+    private final SnapshotExchange snapshots = new SnapshotExchange();
+    private final ConcurrentLinkedQueue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+
+    private volatile boolean running = false;
+    private volatile boolean paused = false;
+
+    private volatile StateListener stateListener = null;
+    // Last state reported, and to whom (simulation thread only)
+    private GameLogic.GameState lastState = null;
+    private StateListener lastListener = null;
+
+    public SimulationThread(GameLogic logic) {
+        this.logic = logic;
+        this.thread = new Thread(this, "GameSimulation");
+    }
+
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    /** Stop stepping while the activity is in the background; time spent paused is not simulated. */
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+        if (!paused) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /** Stop the thread and wait for it; commands not yet run are dropped. */
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(500);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        commands.clear();
+    }
+
+    /** Any thread. Called with the current state on the next wake-up, then on every change. */
+    public void setStateListener(StateListener listener) {
+        stateListener = listener;
+        LockSupport.unpark(thread);
+    }
+
+    /** Any thread. Wake the loop early, e.g. when input was queued. */
+    public void wake() {
+        LockSupport.unpark(thread);
+    }
+
+    /** Any thread. Runs action on the simulation thread before its next update. */
+    public void post(Runnable action) {
+        commands.add(action);
+        LockSupport.unpark(thread);
+    }
+
+    /** GL thread only. Latest snapshot, or null before the first update. */
+    public RenderSnapshot acquireSnapshot() {
+        return snapshots.acquire();
+    }
+
+    @Override
+    public void run() {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_DISPLAY);
+
+        while (running) {
+            runCommands();
+            checkState();
+            if (paused) {
+                LockSupport.park(this);
+                continue;
+            }
+
+            if (PerfStats.isEnabled()) {
+                long start = System.nanoTime();
+                logic.update();
+                PerfStats.recordUpdate(System.nanoTime() - start);
+            } else {
+                logic.update();
+            }
+            checkState();
+
+            RenderSnapshot snapshot = snapshots.beginWrite();
+            snapshot.capture(logic, System.nanoTime());
+            snapshots.publish();
+
+            // Idle (menu, paused, won): nothing to step until a command or input unparks us.
+            // Otherwise sleep until the next step is due; a posted command wakes us early
+            if (logic.isIdle() && commands.isEmpty()) {
+                LockSupport.park(this);
+            } else {
+                long wait = (long) ((1f - logic.getInterpolationAlpha()) * STEP_NANOS);
+                LockSupport.parkNanos(this, Math.max(wait, MIN_PARK_NANOS));
+            }
+        }
+    }
+
+    private void runCommands() {
+        Runnable command;
+        while ((command = commands.poll()) != null) {
+            try {
+                command.run();
+            } catch (Throwable t) {
+                Log.e(TAG, "Command failed", t);
+            }
+        }
+    }
+
+    private void checkState() {
+        StateListener listener = stateListener;
+        if (listener == null) return;
+        GameLogic.GameState state = logic.getGameState();
+        if (state == lastState && listener == lastListener) return;
+        lastState = state;
+        lastListener = listener;
+        try {
+            listener.onStateChanged(state);
+        } catch (Throwable t) {
+            Log.e(TAG, "State listener failed", t);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.testapp;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free hand-over of RenderSnapshots from one writer thread to one reader thread.
+ *
+ * Three preallocated snapshots: the writer fills its back buffer and swaps it into the
+ * shared middle slot; the reader swaps the middle slot for its front buffer when it holds
+ * something new. Neither side ever waits for the other, and a snapshot is never written
+ * while the reader holds it. The writer may publish several times between reads; the
+ * reader simply sees the latest.
+ */
+public class SnapshotExchange {
+
+    private static final int INDEX_MASK = 0x3;
+    private static final int FRESH = 0x4; // middle slot holds a snapshot the reader hasn't taken
+
+    private final RenderSnapshot[] buffers = {
+            new RenderSnapshot(), new RenderSnapshot(), new RenderSnapshot()
+    };
+    private final AtomicInteger middle = new AtomicInteger(1);
+
+    private int back = 0;  // writer thread only
+    private int front = 2; // reader thread only
+    private boolean received = false; // reader thread only
+
+    /** Writer: the snapshot to fill before the next publish(). */
+    public RenderSnapshot beginWrite() {
+        return buffers[back];
+    }
+
+    /** Writer: make the snapshot from beginWrite() the latest. */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /** Reader: the latest published snapshot, or null before the first publish. */
+    public RenderSnapshot acquire() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+            received = true;
+        }
+        return received ? buffers[front] : null;
+    }
+}
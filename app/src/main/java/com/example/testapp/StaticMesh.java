@@ -0,0 +1,265 @@
+package com.example.testapp;
+
+import android.opengl.GLES20;
+import android.opengl.Matrix;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * A set of coloured boxes merged into one indexed mesh and drawn with a single call.
+ * Boxes are added on the CPU (any thread, before upload), then uploaded once on the GL
+ * thread. The CPU copy is kept so the mesh can be re-uploaded after EGL context loss.
+ *
+ * Boxes can be grouped into segments with a bounding sphere ({@link #endSegment}). When
+ * drawn against a frustum, only the contiguous range from the first to the last visible
+ * segment is submitted, still as a single call, so add segments in spatial order.
+ *
+ * Uses the batch program: position (3) + normal (3) + colour (4) per vertex.
+ */
+public class StaticMesh {
+
+    private static final int FLOATS_PER_VERTEX = 3 + 3 + 4;
+    private static final int STRIDE = FLOATS_PER_VERTEX * 4;
+    private static final int VERTICES_PER_BOX = 24; // 4 per face
+    private static final int INDICES_PER_BOX = 36;  // 2 triangles per face
+    private static final int MAX_BOXES = 65536 / VERTICES_PER_BOX; // 16-bit indices
+
+    private final float[] vertexData;
+    private final short[] indexData;
+    private int boxCount = 0;
+    private final int maxBoxes;
+
+    private int vboId = 0;
+    private int iboId = 0;
+
+    // Direct copies for reupload(), allocated on first use
+    private FloatBuffer stagingVertices;
+    private ShortBuffer stagingIndices;
+
+    private final float[] tempModel = new float[16];
+
+    // Segment i covers boxes [segmentEnd[i - 1], segmentEnd[i]) with bounds at segmentBounds[i * 4]
+    private static final int MAX_SEGMENTS = 64;
+    private final int[] segmentEnd = new int[MAX_SEGMENTS];
+    private final float[] segmentBounds = new float[MAX_SEGMENTS * 4];
+    private int segmentCount = 0;
+
+    public StaticMesh(int maxBoxes) {
+        this.maxBoxes = Math.min(maxBoxes, MAX_BOXES);
+        vertexData = new float[this.maxBoxes * VERTICES_PER_BOX * FLOATS_PER_VERTEX];
+        indexData = new short[this.maxBoxes * INDICES_PER_BOX];
+    }
+
+    // ------------------------
+    // Building (CPU side)
+    // ------------------------
+
+    /** Axis-aligned box centred at (x, y, z) with the given full extents. */
+    public void addBox(float x, float y, float z, float sizeX, float sizeY, float sizeZ, float[] colorRGBA) {
+        Matrix.setIdentityM(tempModel, 0);
+        Matrix.translateM(tempModel, 0, x, y, z);
+        Matrix.scaleM(tempModel, 0, sizeX, sizeY, sizeZ);
+        addBox(tempModel, colorRGBA);
+    }
+
+    /** Unit cube transformed by modelMatrix (same convention as Cube.drawWithModel). */
+    public void addBox(float[] modelMatrix, float[] colorRGBA) {
+        if (boxCount >= maxBoxes) {
+            throw new IllegalStateException("StaticMesh is full (" + maxBoxes + " boxes)");
+        }
+
+        float[] m = modelMatrix;
+        float[] src = Cube.VERTICES;
+        int out = boxCount * VERTICES_PER_BOX * FLOATS_PER_VERTEX;
+        int idx = boxCount * INDICES_PER_BOX;
+        int firstVertex = boxCount * VERTICES_PER_BOX;
+
+        // Cube.VERTICES holds 6 faces of 6 vertices laid out as (0,1,2)(0,2,5);
+        // vertices 0, 1, 2 and 5 are the four unique corners of each face
+        for (int face = 0; face < 6; face++) {
+            for (int corner = 0; corner < 4; corner++) {
+                int v = face * 6 + (corner == 3 ? 5 : corner);
+                int s = v * Cube.FLOATS_PER_VERTEX;
+                float px = src[s], py = src[s + 1], pz = src[s + 2];
+
+                vertexData[out++] = m[0] * px + m[4] * py + m[8] * pz + m[12];
+                vertexData[out++] = m[1] * px + m[5] * py + m[9] * pz + m[13];
+                vertexData[out++] = m[2] * px + m[6] * py + m[10] * pz + m[14];
+
+                // Object-space normals, same as the single-cube shader
+                vertexData[out++] = src[s + 3];
+                vertexData[out++] = src[s + 4];
+                vertexData[out++] = src[s + 5];
+
+                vertexData[out++] = colorRGBA[0];
+                vertexData[out++] = colorRGBA[1];
+                vertexData[out++] = colorRGBA[2];
+                vertexData[out++] = colorRGBA[3];
+            }
+
+            int f = firstVertex + face * 4;
+            indexData[idx++] = (short) f;
+            indexData[idx++] = (short) (f + 1);
+            indexData[idx++] = (short) (f + 2);
+            indexData[idx++] = (short) f;
+            indexData[idx++] = (short) (f + 2);
+            indexData[idx++] = (short) (f + 3);
+        }
+
+        boxCount++;
+    }
+
+    /** Close the boxes added since the previous segment under one bounding sphere. */
+    public void endSegment(float centerX, float centerY, float centerZ, float radius) {
+        if (segmentCount >= MAX_SEGMENTS) {
+            throw new IllegalStateException("StaticMesh has too many segments");
+        }
+        segmentEnd[segmentCount] = boxCount;
+        int o = segmentCount * 4;
+        segmentBounds[o] = centerX;
+        segmentBounds[o + 1] = centerY;
+        segmentBounds[o + 2] = centerZ;
+        segmentBounds[o + 3] = radius;
+        segmentCount++;
+    }
+
+    /** Move every box added so far along z; reupload() sends the result. */
+    public void translateZ(float dz) {
+        int vertexFloats = boxCount * VERTICES_PER_BOX * FLOATS_PER_VERTEX;
+        for (int i = 2; i < vertexFloats; i += FLOATS_PER_VERTEX) {
+            vertexData[i] += dz;
+        }
+        for (int i = 0; i < segmentCount; i++) {
+            segmentBounds[i * 4 + 2] += dz;
+        }
+    }
+
+    public void clear() {
+        boxCount = 0;
+        segmentCount = 0;
+    }
+
+    public int getBoxCount() {
+        return boxCount;
+    }
+
+    // ------------------------
+    // GL lifecycle (GL thread only)
+    // ------------------------
+
+    /** Uploads the boxes added so far. No-op if already uploaded for this context. */
+    public void upload() {
+        if (vboId != 0 || boxCount == 0) return;
+
+        int vertexFloats = boxCount * VERTICES_PER_BOX * FLOATS_PER_VERTEX;
+        FloatBuffer vb = ByteBuffer.allocateDirect(vertexFloats * 4)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+
+        int indexCount = boxCount * INDICES_PER_BOX;
+        ShortBuffer ib = ByteBuffer.allocateDirect(indexCount * 2)
+                .order(ByteOrder.nativeOrder())
+                .asShortBuffer();
+
+        int[] ids = new int[2];
+        Gl.get().glGenBuffers(2, ids, 0);
+        vboId = ids[0];
+        iboId = ids[1];
+
+        bufferData(vb, ib);
+    }
+
+    /**
+     * Replace the uploaded contents with the boxes added since clear(), in the same GL
+     * buffers, for meshes rebuilt while running. Staging buffers are kept for the next time.
+     */
+    public void reupload() {
+        if (vboId == 0) {
+            upload();
+            return;
+        }
+        if (stagingVertices == null) {
+            stagingVertices = ByteBuffer.allocateDirect(vertexData.length * 4)
+                    .order(ByteOrder.nativeOrder())
+                    .asFloatBuffer();
+            stagingIndices = ByteBuffer.allocateDirect(indexData.length * 2)
+                    .order(ByteOrder.nativeOrder())
+                    .asShortBuffer();
+        }
+        stagingVertices.clear();
+        stagingIndices.clear();
+        bufferData(stagingVertices, stagingIndices);
+    }
+
+    private void bufferData(FloatBuffer vb, ShortBuffer ib) {
+        int vertexFloats = boxCount * VERTICES_PER_BOX * FLOATS_PER_VERTEX;
+        vb.put(vertexData, 0, vertexFloats).position(0);
+        int indexCount = boxCount * INDICES_PER_BOX;
+        ib.put(indexData, 0, indexCount).position(0);
+
+        GlState.bindArrayBuffer(vboId);
+        Gl.get().glBufferData(GLES20.GL_ARRAY_BUFFER, vertexFloats * 4, vb, GLES20.GL_STATIC_DRAW);
+
+        GlState.bindElementArrayBuffer(iboId);
+        Gl.get().glBufferData(GLES20.GL_ELEMENT_ARRAY_BUFFER, indexCount * 2, ib, GLES20.GL_STATIC_DRAW);
+    }
+
+    /** Forget GL names from a lost context; the CPU copy stays for the next upload(). */
+    public void invalidate() {
+        vboId = 0;
+        iboId = 0;
+    }
+
+    /** Draw the whole mesh with one call. mvpMatrix is view-projection * mesh model. */
+    public void draw(float[] mvpMatrix) {
+        drawRange(mvpMatrix, 0, boxCount);
+    }
+
+    /**
+     * Draw only the segments from the first to the last one inside the frustum, in one call.
+     * Segment bounds are in mesh space, so this is for meshes drawn with an identity model.
+     * Returns the number of segments skipped.
+     */
+    public int draw(float[] vpMatrix, Frustum frustum) {
+        if (segmentCount == 0) {
+            draw(vpMatrix);
+            return 0;
+        }
+
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < segmentCount; i++) {
+            int o = i * 4;
+            if (frustum.isSphereVisible(segmentBounds[o], segmentBounds[o + 1],
+                    segmentBounds[o + 2], segmentBounds[o + 3])) {
+                if (first < 0) first = i;
+                last = i;
+            }
+        }
+        if (first < 0) {
+            return segmentCount;
+        }
+
+        int startBox = first == 0 ? 0 : segmentEnd[first - 1];
+        drawRange(vpMatrix, startBox, segmentEnd[last]);
+        return segmentCount - (last - first + 1);
+    }
+
+    private void drawRange(float[] mvpMatrix, int startBox, int endBox) {
+        if (vboId == 0 || ShaderHelper.batchProgram == -1 || endBox <= startBox) return;
+
+        GlState.useProgram(ShaderHelper.batchProgram);
+        Gl.get().glUniformMatrix4fv(ShaderHelper.batchVPMatrixHandle, 1, false, mvpMatrix, 0);
+
+        GlState.bindArrayBuffer(vboId);
+        ShaderHelper.bindBatchAttributes(STRIDE);
+
+        GlState.bindElementArrayBuffer(iboId);
+        RenderStats.drawCalls++;
+        Gl.get().glDrawElements(GLES20.GL_TRIANGLES, (endBox - startBox) * INDICES_PER_BOX,
+                GLES20.GL_UNSIGNED_SHORT, startBox * INDICES_PER_BOX * 2);
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.testapp;
+
+/**
+ * Timed callbacks on a binary min-heap of pooled nodes.
+ *
+ * schedule() and cancel() are O(log n); runDue() pops what is due and allocates nothing.
+ * Nodes come from a free list that only grows (doubling) when more timers are pending at
+ * once than ever before. A callback gets the object and int it was scheduled with, so
+ * callers keep one preallocated Task per kind of event instead of a capturing lambda.
+ *
+ * Callbacks run after their node is back in the pool and with no heap operation in
+ * progress, so they may schedule or cancel timers themselves. Equal due times fire in
+ * scheduling order.
+ *
+ * Single-threaded: the owner (the simulation thread) schedules and dispatches.
+ */
+public class TimerQueue {
+
+    public interface Task {
+        void run(Object ref, int arg);
+    }
+
+    /** Returned by schedule() when nothing was scheduled; cancel() ignores it. */
+    public static final long NO_TIMER = -1L;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final class Timer {
+        long dueAt;
+        long sequence;   // tie-break for equal due times
+        int heapIndex;   // -1 while free
+        int generation;  // bumped on release, so stale handles don't cancel a reused node
+        int slot;        // index in nodes[]
+        Task task;
+        Object ref;
+        int arg;
+        Timer nextFree;
+    }
+
+    private Timer[] nodes = new Timer[0];
+    private Timer[] heap = new Timer[0];
+    private int size = 0;
+    private Timer freeList = null;
+    private long nextSequence = 0;
+
+    public TimerQueue() {
+        grow(INITIAL_CAPACITY);
+    }
+
+    /** Run task(ref, arg) at or after dueAt; returns a handle for cancel(). */
+    public long schedule(Task task, long dueAt, Object ref, int arg) {
+        if (freeList == null) {
+            grow(nodes.length * 2);
+        }
+        Timer t = freeList;
+        freeList = t.nextFree;
+        t.nextFree = null;
+
+        t.dueAt = dueAt;
+        t.sequence = nextSequence++;
+        t.task = task;
+        t.ref = ref;
+        t.arg = arg;
+
+        t.heapIndex = size;
+        heap[size++] = t;
+        siftUp(t.heapIndex);
+        return ((long) t.generation << 32) | t.slot;
+    }
+
+    /** Drop a pending timer. Returns false if it already fired or was cancelled. */
+    public boolean cancel(long handle) {
+        if (handle == NO_TIMER) return false;
+        int slot = (int) handle;
+        int generation = (int) (handle >>> 32);
+        if (slot < 0 || slot >= nodes.length) return false;
+
+        Timer t = nodes[slot];
+        if (t.generation != generation || t.heapIndex < 0) return false;
+        removeAt(t.heapIndex);
+        release(t);
+        return true;
+    }
+
+    /** Fire every timer due at or before now, earliest first. */
+    public void runDue(long now) {
+        while (size > 0 && heap[0].dueAt <= now) {
+            Timer t = heap[0];
+            removeAt(0);
+
+            Task task = t.task;
+            Object ref = t.ref;
+            int arg = t.arg;
+            release(t);
+
+            try {
+                task.run(ref, arg);
+            } catch (Throwable e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /** Drop every pending timer; outstanding handles become stale. */
+    public void clear() {
+        while (size > 0) {
+            Timer t = heap[--size];
+            heap[size] = null;
+            release(t);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // ------------------------
+    // Heap
+    // ------------------------
+    private void removeAt(int index) {
+        heap[index].heapIndex = -1;
+        Timer last = heap[--size];
+        heap[size] = null;
+        if (index == size) return;
+
+        heap[index] = last;
+        last.heapIndex = index;
+        siftDown(index);
+        if (heap[index] == last) {
+            siftUp(index);
+        }
+    }
+
+    private void siftUp(int index) {
+        Timer t = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            Timer p = heap[parent];
+            if (!before(t, p)) break;
+            heap[index] = p;
+            p.heapIndex = index;
+            index = parent;
+        }
+        heap[index] = t;
+        t.heapIndex = index;
+    }
+
+    private void siftDown(int index) {
+        Timer t = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && before(heap[right], heap[child])) {
+                child = right;
+            }
+            if (!before(heap[child], t)) break;
+            heap[index] = heap[child];
+            heap[index].heapIndex = index;
+            index = child;
+        }
+        heap[index] = t;
+        t.heapIndex = index;
+    }
+
+    private static boolean before(Timer a, Timer b) {
+        return a.dueAt < b.dueAt || (a.dueAt == b.dueAt && a.sequence < b.sequence);
+    }
+
+    // ------------------------
+    // Pool
+    // ------------------------
+    private void release(Timer t) {
+        t.heapIndex = -1;
+        t.generation++;
+        t.task = null;
+        t.ref = null;
+        t.nextFree = freeList;
+        freeList = t;
+    }
+
+    private void grow(int capacity) {
+        int old = nodes.length;
+        Timer[] newNodes = new Timer[capacity];
+        System.arraycopy(nodes, 0, newNodes, 0, old);
+        Timer[] newHeap = new Timer[capacity];
+        System.arraycopy(heap, 0, newHeap, 0, size);
+
+        for (int i = capacity - 1; i >= old; i--) {
+            Timer t = new Timer();
+            t.slot = i;
+            t.heapIndex = -1;
+            t.nextFree = freeList;
+            freeList = t;
+            newNodes[i] = t;
+        }
+        nodes = newNodes;
+        heap = newHeap;
+    }
+}
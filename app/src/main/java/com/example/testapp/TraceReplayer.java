@@ -0,0 +1,158 @@
+package com.example.testapp;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Replays an InputTrace through a fresh GameLogic on the calling thread, as fast as it can:
+ * a manual clock jumps straight to each recorded time, commands run inline, jumps go
+ * through the same input ring as on device. Same trace, same game, every run.
+ *
+ * Each recorded update is timed; update-time percentiles are reported to the listener
+ * every STATS_WINDOW updates and for the whole run in the Result. With a listener, every
+ * update is also captured into a RenderSnapshot and handed over, so the rendering path can
+ * be included (draw it against a live context, or against RecordingGL to count calls);
+ * the hook's time is measured separately.
+ */
+public class TraceReplayer {
+
+    public static final int STATS_WINDOW = 600; // ~10 s of play
+
+    public interface Listener {
+        /** After each recorded update, with the state it produced. */
+        void onFrame(RenderSnapshot snapshot);
+
+        /** Every STATS_WINDOW updates: update-time percentiles for the window, in microseconds. */
+        void onStats(int updatesSoFar, float p50Micros, float p95Micros, float p99Micros);
+    }
+
+    public static final class Result {
+        public int updates;
+        public int jumps;
+        public int commands;
+        public long simulatedMillis;
+        public long wallNanos;
+        public float updateP50Micros, updateP95Micros, updateP99Micros;
+        public float frameP50Micros, frameP95Micros, frameP99Micros; // listener.onFrame, 0 without one
+        public GameLogic.GameState finalState;
+        public int finalLevel;
+        public int highestLevel;
+
+        @Override
+        public String toString() {
+            return updates + " updates, " + jumps + " jumps, " + commands + " commands, "
+                    + simulatedMillis + " ms simulated in " + (wallNanos / 1_000_000) + " ms; "
+                    + "update us p50/p95/p99 " + updateP50Micros + "/" + updateP95Micros + "/" + updateP99Micros
+                    + "; frame us " + frameP50Micros + "/" + frameP95Micros + "/" + frameP99Micros
+                    + "; ended " + finalState + " at level " + finalLevel + " (best " + highestLevel + ")";
+        }
+    }
+
+    private TraceReplayer() {
+    }
+
+    /** listener may be null for a simulation-only run. */
+    public static Result replay(byte[] trace, Listener listener) throws IOException {
+        InputTrace.Reader reader = new InputTrace.Reader(trace);
+        GameClock.Manual clock = new GameClock.Manual(reader.getStartTime());
+        GameLogic logic = new GameLogic(clock, reader.getSeed());
+        RenderSnapshot snapshot = listener != null ? new RenderSnapshot() : null;
+
+        Result result = new Result();
+        long[] updateNanos = new long[1024];
+        long[] frameNanos = new long[listener != null ? 1024 : 0];
+        long[] window = new long[STATS_WINDOW];
+        int windowCount = 0;
+
+        long wallStart = System.nanoTime();
+        int type;
+        while ((type = reader.next()) != InputTrace.END) {
+            long time = reader.getTime();
+            switch (type) {
+                case InputTrace.UPDATE: {
+                    clock.set(time);
+                    long start = System.nanoTime();
+                    logic.update();
+                    long elapsed = System.nanoTime() - start;
+
+                    if (result.updates == updateNanos.length) {
+                        updateNanos = Arrays.copyOf(updateNanos, updateNanos.length * 2);
+                    }
+                    updateNanos[result.updates] = elapsed;
+                    window[windowCount++] = elapsed;
+
+                    if (listener != null) {
+                        start = System.nanoTime();
+                        snapshot.capture(logic, start);
+                        listener.onFrame(snapshot);
+                        if (result.updates == frameNanos.length) {
+                            frameNanos = Arrays.copyOf(frameNanos, frameNanos.length * 2);
+                        }
+                        frameNanos[result.updates] = System.nanoTime() - start;
+                    }
+                    result.updates++;
+
+                    if (windowCount == STATS_WINDOW) {
+                        Arrays.sort(window);
+                        if (listener != null) {
+                            listener.onStats(result.updates, micros(window, windowCount, 50),
+                                    micros(window, windowCount, 95), micros(window, windowCount, 99));
+                        }
+                        windowCount = 0;
+                    }
+                    break;
+                }
+                case InputTrace.JUMP_LEFT:
+                    logic.jumpLeft(time);
+                    result.jumps++;
+                    break;
+                case InputTrace.JUMP_RIGHT:
+                    logic.jumpRight(time);
+                    result.jumps++;
+                    break;
+                default:
+                    clock.set(time);
+                    runCommand(logic, type);
+                    result.commands++;
+                    break;
+            }
+        }
+        result.wallNanos = System.nanoTime() - wallStart;
+        result.simulatedMillis = reader.getTime() - reader.getStartTime();
+
+        Arrays.sort(updateNanos, 0, result.updates);
+        result.updateP50Micros = micros(updateNanos, result.updates, 50);
+        result.updateP95Micros = micros(updateNanos, result.updates, 95);
+        result.updateP99Micros = micros(updateNanos, result.updates, 99);
+        if (listener != null) {
+            Arrays.sort(frameNanos, 0, result.updates);
+            result.frameP50Micros = micros(frameNanos, result.updates, 50);
+            result.frameP95Micros = micros(frameNanos, result.updates, 95);
+            result.frameP99Micros = micros(frameNanos, result.updates, 99);
+        }
+
+        result.finalState = logic.getGameState();
+        result.finalLevel = logic.getCurrentLevel();
+        result.highestLevel = logic.getHighestLevelReached();
+        logic.cleanup();
+        return result;
+    }
+
+    private static void runCommand(GameLogic logic, int type) throws IOException {
+        switch (type) {
+            case InputTrace.START: logic.startGame(); break;
+            case InputTrace.ENDLESS: logic.startEndless(); break;
+            case InputTrace.RESTART: logic.restartCurrentLevel(); break;
+            case InputTrace.PAUSE: logic.pauseGame(); break;
+            case InputTrace.RESUME: logic.resumeGame(); break;
+            case InputTrace.MENU: logic.returnToMenu(); break;
+            default: throw new IOException("Unknown trace record " + type);
+        }
+    }
+
+    // Percentile of the first count sorted values, in microseconds
+    private static float micros(long[] sorted, int count, int percentile) {
+        if (count == 0) return 0f;
+        return sorted[(count * percentile) / 100] / 1000f;
+    }
+}
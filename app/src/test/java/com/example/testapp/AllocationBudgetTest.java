@@ -0,0 +1,127 @@
+package com.example.testapp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * The frame loop must not allocate: no per-frame garbage means no GC pauses mid-game.
+ *
+ * Bytes allocated by the test thread are counted across a run of simulated frames, after
+ * a warm-up run of the same frames has done any lazy set-up. While the JIT is still
+ * settling, a deoptimisation can re-create objects it had optimised away, a few hundred
+ * bytes at a time; the budget holds when any one of MAX_RUNS runs allocates nothing,
+ * which code that allocates every frame never does.
+ *
+ * Plain JVM test: it expects the app's test source set to run against an android.jar that
+ * returns default values (testOptions.unitTests.returnDefaultValues = true in the app's
+ * Gradle build, which is not part of this source tree). Matrix, Log and SystemClock then
+ * do nothing, GL calls go to RecordingGL and the game runs on a manual clock.
+ */
+public class AllocationBudgetTest {
+
+    private static final long FRAME_MS = 16;
+    private static final long JUMP_EVERY_MS = 400;
+    private static final int FRAMES = 1200;
+    private static final int MAX_RUNS = 5;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private GameRenderer renderer;
+
+    @After
+    public void tearDown() {
+        if (renderer != null) {
+            renderer.release();
+        }
+        Gl.reset();
+    }
+
+    @Test
+    public void simulationFramesDoNotAllocate() {
+        GameClock.Manual clock = new GameClock.Manual(1000);
+        GameLogic logic = new GameLogic(clock, 42L);
+        RenderSnapshot snapshot = new RenderSnapshot();
+        logic.startEndless();
+
+        long[] time = {1000};
+        runSimulation(logic, clock, snapshot, time); // warm-up
+
+        long allocated = Long.MAX_VALUE;
+        for (int run = 0; run < MAX_RUNS && allocated != 0; run++) {
+            long before = THREADS.getCurrentThreadAllocatedBytes();
+            runSimulation(logic, clock, snapshot, time);
+            allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+        }
+
+        assertTrue("endless run never got going", logic.getEndlessDistance() > FRAMES / 50);
+        assertEquals("bytes allocated by " + FRAMES + " simulation frames, best run", 0, allocated);
+    }
+
+    @Test
+    public void renderFramesDoNotAllocate() throws InterruptedException {
+        RecordingGL gl = new RecordingGL();
+        gl.setKeepCommands(false);
+        Gl.set(gl);
+
+        // Level 1, past its memory phase: the simulation thread starts it on its first update
+        GameClock.Manual clock = new GameClock.Manual(1000);
+        GameLogic logic = new GameLogic(clock, 42L);
+        logic.startGame();
+        clock.set(60_000);
+        renderer = new GameRenderer(logic);
+        renderer.onSurfaceCreated(null, null);
+        renderer.onSurfaceChanged(null, 1080, 1920);
+        awaitPlaying(logic);
+
+        for (int i = 0; i < FRAMES; i++) {
+            renderer.onDrawFrame(null); // warm-up
+        }
+
+        long draws = gl.count(RecordingGL.Kind.DRAW);
+        long allocated = Long.MAX_VALUE;
+        for (int run = 0; run < MAX_RUNS && allocated != 0; run++) {
+            long before = THREADS.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < FRAMES; i++) {
+                renderer.onDrawFrame(null);
+            }
+            allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+        }
+
+        assertTrue("nothing was drawn", gl.count(RecordingGL.Kind.DRAW) > draws);
+        assertEquals("bytes allocated by " + FRAMES + " rendered frames, best run", 0, allocated);
+    }
+
+    // What SimulationThread does each wake-up, with a correct jump every JUMP_EVERY_MS
+    private static void runSimulation(GameLogic logic, GameClock.Manual clock,
+                                      RenderSnapshot snapshot, long[] time) {
+        for (int i = 0; i < FRAMES; i++) {
+            time[0] += FRAME_MS;
+            if (logic.isPlaying() && time[0] % JUMP_EVERY_MS < FRAME_MS) {
+                if (logic.getNextPlatform().isCorrect(true)) {
+                    logic.jumpLeft(time[0]);
+                } else {
+                    logic.jumpRight(time[0]);
+                }
+            }
+            clock.set(time[0]);
+            logic.update();
+            snapshot.capture(logic, time[0] * 1_000_000L);
+            snapshot.interpolate(time[0] * 1_000_000L);
+        }
+    }
+
+    private static void awaitPlaying(GameLogic logic) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!logic.isPlaying()) {
+            assertTrue("level never started", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+        Thread.sleep(100); // a few more steps, so the snapshot shows it
+    }
+}
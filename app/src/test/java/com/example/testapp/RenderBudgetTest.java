@@ -0,0 +1,89 @@
+package com.example.testapp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Draw-call and state-change budgets for one frame of the level-1 scene, counted with
+ * RecordingGL, so rendering-cost regressions fail without a GPU.
+ *
+ * Budgets sit a little above what the scene issues today (21 draws; ~260 state calls on
+ * ES 3.0, ~230 on the ES 2.0 fallback). Plain JVM test against an android.jar that returns
+ * default values (see AllocationBudgetTest): Matrix does nothing, so nothing is culled
+ * and the counts are an upper bound on device.
+ */
+public class RenderBudgetTest {
+
+    private static final int DRAW_BUDGET = 24;
+    private static final int STATE_BUDGET = 300;
+    private static final int UNIFORM_BUDGET = 50;
+    private static final int UPLOAD_BUDGET = 2; // CubeBatch instance data
+
+    private GameRenderer renderer;
+
+    @After
+    public void tearDown() {
+        if (renderer != null) {
+            renderer.release();
+        }
+        Gl.reset();
+    }
+
+    @Test
+    public void level1FrameStaysWithinBudget() throws InterruptedException {
+        RecordingGL gl = drawLevel1Frame(new RecordingGL());
+        assertBudgets(gl);
+        assertEquals("instanced draws", 2, gl.count("glDrawArraysInstanced"));
+    }
+
+    @Test
+    public void level1FrameStaysWithinBudgetOnEs2() throws InterruptedException {
+        RecordingGL gl = drawLevel1Frame(new RecordingGL("OpenGL ES 2.0 RecordingGL"));
+        assertBudgets(gl);
+        assertEquals("instanced draws", 0, gl.count("glDrawArraysInstanced"));
+    }
+
+    private static void assertBudgets(RecordingGL gl) {
+        assertTrue("draws: " + gl.count(RecordingGL.Kind.DRAW),
+                gl.count(RecordingGL.Kind.DRAW) <= DRAW_BUDGET);
+        assertTrue("state changes: " + gl.count(RecordingGL.Kind.STATE),
+                gl.count(RecordingGL.Kind.STATE) <= STATE_BUDGET);
+        assertTrue("uniform uploads: " + gl.count(RecordingGL.Kind.UNIFORM),
+                gl.count(RecordingGL.Kind.UNIFORM) <= UNIFORM_BUDGET);
+        assertTrue("buffer uploads: " + gl.count(RecordingGL.Kind.UPLOAD),
+                gl.count(RecordingGL.Kind.UPLOAD) <= UPLOAD_BUDGET);
+
+        // Everything is created at surface creation, never per frame
+        assertEquals("resource calls", 0, gl.count(RecordingGL.Kind.RESOURCE));
+        assertEquals("queries", 0, gl.count(RecordingGL.Kind.QUERY));
+        assertEquals("clears", 1, gl.count(RecordingGL.Kind.CLEAR));
+    }
+
+    // Level 1 past its memory phase; records the last of a few frames
+    private RecordingGL drawLevel1Frame(RecordingGL gl) throws InterruptedException {
+        Gl.set(gl);
+        GameClock.Manual clock = new GameClock.Manual(1000);
+        GameLogic logic = new GameLogic(clock, 42L);
+        logic.startGame();
+        clock.set(60_000);
+        renderer = new GameRenderer(logic);
+        renderer.onSurfaceCreated(null, null);
+        renderer.onSurfaceChanged(null, 1080, 1920);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!logic.isPlaying()) {
+            assertTrue("level never started", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+        Thread.sleep(100); // a few more steps, so the snapshot shows it
+
+        for (int i = 0; i < 3; i++) {
+            gl.clear();
+            renderer.onDrawFrame(null);
+        }
+        return gl;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.testapp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TimerQueueTest {
+
+    private final TimerQueue timers = new TimerQueue();
+    private final StringBuilder fired = new StringBuilder();
+    private final TimerQueue.Task task = (ref, arg) -> fired.append(arg);
+
+    @Test
+    public void firesTheOnlyPendingTimer() {
+        timers.schedule(task, 10, null, 1);
+        timers.runDue(10);
+        assertEquals("1", fired.toString());
+        assertEquals(0, timers.size());
+    }
+
+    @Test
+    public void cancelsTheLastTimerInTheHeap() {
+        timers.schedule(task, 10, null, 1);
+        long last = timers.schedule(task, 20, null, 2);
+        assertTrue(timers.cancel(last));
+        assertFalse(timers.cancel(last));
+        timers.runDue(30);
+        assertEquals("1", fired.toString());
+    }
+
+    @Test
+    public void firesInDueOrderThenSchedulingOrder() {
+        timers.schedule(task, 30, null, 3);
+        timers.schedule(task, 10, null, 1);
+        timers.schedule(task, 20, null, 2);
+        timers.schedule(task, 10, null, 4);
+        timers.runDue(25);
+        assertEquals("142", fired.toString());
+        assertEquals(1, timers.size());
+    }
+
+    @Test
+    public void growsPastItsInitialCapacity() {
+        for (int i = 0; i < 100; i++) {
+            timers.schedule(task, 100 - i, null, 0);
+        }
+        timers.runDue(100);
+        assertEquals(100, fired.length());
+        assertEquals(0, timers.size());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.testapp;
+
+import android.opengl.Matrix;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The five piece transforms of one open book (spine, pages, covers), as the CPU book path
+ * builds them. The matrix math is android.opengl.Matrix: the numbers only mean something
+ * with a real implementation of it on the classpath, not the android.jar stubs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookTransformBenchmark {
+
+    private static final float SIZE = 0.4f;
+    private static final float HEIGHT = SIZE * 1.4f;
+    private static final float PAGE_WIDTH = SIZE * 1.2f * 0.5f;
+    private static final float HALF_SPINE = SIZE * 0.03f * 0.5f;
+    private static final float PAGE_THICKNESS = SIZE * 0.08f;
+    private static final float COVER_THICKNESS = SIZE * 0.02f;
+    private static final float COVER_OFFSET = (PAGE_THICKNESS + COVER_THICKNESS) * 0.5f;
+    private static final float OPEN_ANGLE = -45f;
+
+    private final float[] world = new float[16];
+    private GameRenderer renderer;
+
+    @Setup
+    public void setUp() {
+        renderer = new GameRenderer(new GameLogic());
+        Matrix.setIdentityM(world, 0);
+        Matrix.translateM(world, 0, 4f, 3f, 10f);
+    }
+
+    @TearDown
+    public void tearDown() {
+        renderer.release();
+    }
+
+    @Benchmark
+    public float bookPieces() {
+        float sum = 0f;
+        sum += renderer.createBookPieceTransform(world, 0, 0, 0, 0,
+                SIZE * 0.15f, HEIGHT, SIZE * 0.03f)[12];
+        sum += renderer.createBookPieceTransform(world, -HALF_SPINE, -OPEN_ANGLE, -PAGE_WIDTH * 0.5f, 0,
+                PAGE_THICKNESS, HEIGHT * 0.96f, PAGE_WIDTH)[12];
+        sum += renderer.createBookPieceTransform(world, -HALF_SPINE, -OPEN_ANGLE, -PAGE_WIDTH * 0.5f, COVER_OFFSET,
+                COVER_THICKNESS, HEIGHT, PAGE_WIDTH * 1.25f)[12];
+        sum += renderer.createBookPieceTransform(world, HALF_SPINE, OPEN_ANGLE, PAGE_WIDTH * 0.5f, 0,
+                PAGE_THICKNESS, HEIGHT * 0.96f, PAGE_WIDTH)[12];
+        sum += renderer.createBookPieceTransform(world, HALF_SPINE, OPEN_ANGLE, PAGE_WIDTH * 0.5f, COVER_OFFSET,
+                COVER_THICKNESS, HEIGHT, PAGE_WIDTH * 1.25f)[12];
+        return sum;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.testapp;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Simulation cost per level size: one update (a 16 ms frame, one fixed step) while a level
+ * is played, and a level rebuild as on a win or fail. Levels 1, 40 and 100 have 5, 7 and
+ * 10 platforms; 100 is already at MAX_PLATFORMS.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameLogicBenchmark {
+
+    private static final long FRAME_MS = 16;
+
+    @Param({"1", "40", "100"})
+    public int level;
+
+    private GameClock.Manual clock;
+    private GameLogic logic;
+    private long time;
+
+    @Setup
+    public void setUp() {
+        time = 1000;
+        clock = new GameClock.Manual(time);
+        logic = new GameLogic(clock, 42L);
+        logic.restartAtLevel(level);
+
+        // Past the memory phase
+        time += 60_000;
+        clock.set(time);
+        logic.update();
+    }
+
+    @Benchmark
+    public GameLogic update() {
+        time += FRAME_MS;
+        clock.set(time);
+        logic.update();
+        return logic;
+    }
+
+    @Benchmark
+    public GameLogic rebuildLevel() {
+        logic.restartAtLevel(level);
+        return logic;
+    }
+}
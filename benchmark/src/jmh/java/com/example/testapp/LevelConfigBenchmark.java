@@ -0,0 +1,31 @@
+package com.example.testapp;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Level parameters (platform count and memory time) for every level from 1 to 1000. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelConfigBenchmark {
+
+    private static final int LEVELS = 1000;
+
+    @Benchmark
+    public long levels1To1000() {
+        long sum = 0;
+        for (int level = 1; level <= LEVELS; level++) {
+            sum += GameLogic.getLevelPlatformCount(level) + GameLogic.getLevelMemoryTime(level);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.testapp;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** One Player step, hopping between two platforms so the jump path is taken. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerBenchmark {
+
+    private final Player player = new Player(0f, 0f, 0f);
+    private boolean left = false;
+
+    @Benchmark
+    public Player update() {
+        if (!player.isJumping()) {
+            left = !left;
+            player.jumpTo(left ? -1.5f : 1.5f, 0f, player.z + 5f);
+        }
+        player.update();
+        return player;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.testapp;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scheduled-event dispatch with many events pending: schedule one event and fire it
+ * while `pending` others wait further out, as GameLogic's break and fail timers do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimerQueueBenchmark {
+
+    @Param({"0", "64", "4096"})
+    public int pending;
+
+    private final TimerQueue timers = new TimerQueue();
+    private long now = 0;
+    private long fired = 0;
+    private final TimerQueue.Task task = (ref, arg) -> fired += arg;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < pending; i++) {
+            timers.schedule(task, Long.MAX_VALUE - i, null, 0);
+        }
+    }
+
+    @Benchmark
+    public long scheduleAndDispatch() {
+        now++;
+        timers.schedule(task, now, null, 1);
+        timers.runDue(now);
+        return fired;
+    }
+}